@@ -1,102 +1,277 @@
 /******************************************************************************
  *  Compilation:  javac Biconnected.java
- *  Execution:    java Biconnected V E
- *  Dependencies: Graph.java GraphGenerator.java
+ *  Execution:    java Biconnected topology.txt
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java Queue.java
+ *                In.java StdOut.java
  *
- *  Identify articulation points and print them out.
- *  This can be used to decompose a graph into biconnected components.
- *  Runs in O(E + V) time.
+ *  Identify articulation points, bridges and biconnected components
+ *  in one depth-first search, and print them out.
+ *  Runs in O(E + V) time, without recursion.
  *
  *  http://www.cs.brown.edu/courses/cs016/book/slides/Connectivity2x2.pdf
  *
  ******************************************************************************/
-import java.util.Iterator;
 
+import java.util.Arrays;
+
+/**
+ *  The {@code Biconnected} class finds the articulation points, the bridges
+ *  and the biconnected components (blocks) of an undirected topology stored
+ *  as an {@link IndexedDigraph}, whose links have an edge in each direction.
+ *  <p>
+ *  The depth-first search keeps its own stack of vertices and a stack of the
+ *  edges of the blocks in progress, so its depth is limited only by memory:
+ *  long chains and rings with millions of vertices do not overflow the
+ *  thread stack. Every link is assigned to exactly one block, except
+ *  self-loops, which belong to none; a block made of a single link is a
+ *  bridge. Parallel links between two vertices form a block of their own and
+ *  are not bridges.
+ *  <p>
+ *  All arrays live in a {@link Workspace}. A caller that runs the search
+ *  many times, such as a failure sweep, passes the same workspace each time
+ *  and nothing is allocated after the first run; the results of a search are
+ *  only valid until its workspace is used again.
+ *  <p>
+ *  This implementation takes time proportional to <em>V</em> + <em>E</em>.
+ *
+ *  @author Daniel O'Neill
+ */
 public class Biconnected {
-    private int[] low;
-    private int[] pre;
-    private int cnt;
-    private boolean[] articulation;
-	
-	/*
-	public findTwoVertices(EdgeWeightedDigraph G){
-		for (int v = 0; v < G.V(); v++){
-			G.remove(v)
-			for(int w = 0; w<G.V(); w++){
-				G.remove(w);
-				biconnected(G);
-			}
-		}
-		
-		
-		
-	}
-	*/
+    private final IndexedDigraph G;
+    private final Workspace work;
+    private final int components;
+
+    /**
+     *  Scratch and result arrays for {@link Biconnected}, sized for a number
+     *  of vertices and edges and grown when a larger digraph comes along.
+     *  A workspace must not be shared by two searches running at once.
+     */
+    public static final class Workspace {
+        private int[] pre;                // preorder number of v, or -1 if unvisited
+        private int[] low;                // lowest preorder number reachable from v's subtree by one back edge
+        private int[] parent;             // edge by which v was reached, or -1
+        private int[] scan;               // next edge of v to scan
+        private int[] stack;              // vertices on the search path
+        private boolean[] articulation;
+        private int[] edges;              // edges of the blocks not yet complete
+        private int[] component;          // block of edge e, or -1
+        private int[] links;              // number of links in block c
+
+        /**
+         * Initializes a workspace for digraphs with up to {@code V} vertices
+         * and {@code E} edges.
+         *
+         * @param  V the number of vertices
+         * @param  E the number of edges
+         */
+        public Workspace(int V, int E) {
+            pre = new int[V];
+            low = new int[V];
+            parent = new int[V];
+            scan = new int[V];
+            stack = new int[V];
+            articulation = new boolean[V];
+            links = new int[V];
+            edges = new int[E];
+            component = new int[E];
+        }
+
+        // make room for V vertices and E edges
+        private void ensure(int V, int E) {
+            if (pre.length < V) {
+                pre = new int[V];
+                low = new int[V];
+                parent = new int[V];
+                scan = new int[V];
+                stack = new int[V];
+                articulation = new boolean[V];
+                links = new int[V];
+            }
+            if (edges.length < E) {
+                edges = new int[E];
+                component = new int[E];
+            }
+        }
+    }
+
+    /**
+     * Computes the articulation points, bridges and blocks of {@code G}.
+     *
+     * @param  G the edge-weighted digraph
+     */
     public Biconnected(EdgeWeightedDigraph G) {
-		//lowest vertex you can reach following 0 or more spanning tree edges and at most one back edge
-        low = new int[G.V()]; 
-        pre = new int[G.V()];
-        articulation = new boolean[G.V()];
-        for (int v = 0; v < G.V(); v++)
-            low[v] = -1;
-        for (int v = 0; v < G.V(); v++)
-            pre[v] = -1;
-        
-        for (int v = 0; v < G.V(); v++)
-            if (pre[v] == -1)
-                dfs(G, v, v);
+        this(G.freeze());
     }
 
-    private void dfs(EdgeWeightedDigraph G, int u, int v) {
-        int children = 0;
-        pre[v] = cnt++;
-        low[v] = pre[v];
-		Iterator<Edge> i = G.adj(v).iterator();
-        for (int w = 0; w<G.outdegree(v); w++) {
-			Edge e = i.next();
-			int currentVertex = e.to();
-            if (pre[currentVertex] == -1) {
-                children++;
-                dfs(G, v, currentVertex);
-
-                // update low number
-                low[v] = Math.min(low[v], low[currentVertex]);
-
-                // non-root of DFS is an articulation point if low[w] >= pre[v]
-                if (low[currentVertex] >= pre[v] && u != v) 
-                    articulation[v] = true;
+    /**
+     * Computes the articulation points, bridges and blocks of {@code G}.
+     *
+     * @param  G the digraph
+     */
+    public Biconnected(IndexedDigraph G) {
+        this(G, new Workspace(G.V(), G.E()));
+    }
+
+    /**
+     * Computes the articulation points, bridges and blocks of {@code G}
+     * using the arrays of {@code work}, which the results then live in.
+     *
+     * @param  G the digraph
+     * @param  work the workspace, grown if it is too small for {@code G}
+     */
+    public Biconnected(IndexedDigraph G, Workspace work) {
+        this.G = G;
+        this.work = work;
+        int V = G.V();
+        work.ensure(V, G.E());
+        int[] pre = work.pre, low = work.low, parent = work.parent, scan = work.scan, stack = work.stack;
+        int[] edges = work.edges, component = work.component, links = work.links;
+        boolean[] articulation = work.articulation;
+        Arrays.fill(pre, 0, V, -1);
+        Arrays.fill(articulation, 0, V, false);
+        Arrays.fill(component, 0, G.E(), -1);
+
+        int cnt = 0, blocks = 0;
+        for (int s = 0; s < V; s++) {
+            if (pre[s] != -1 || !G.hasVertex(s)) continue;
+            int sp = 0, top = 0, children = 0;
+            pre[s] = low[s] = cnt++;
+            parent[s] = -1;
+            scan[s] = G.begin(s);
+            stack[sp++] = s;
+            while (sp > 0) {
+                int v = stack[sp-1];
+                if (scan[v] < G.end(v)) {
+                    int e = scan[v]++;
+                    if (!G.hasEdge(e)) continue;
+                    int w = G.to(e);
+
+                    // ignore self-loops and the link leading back to v's parent
+                    if (w == v) continue;
+                    if (parent[v] != -1 && G.link(e) == G.link(parent[v])) continue;
+
+                    if (pre[w] == -1) {
+                        if (v == s) children++;
+                        edges[top++] = e;
+                        parent[w] = e;
+                        pre[w] = low[w] = cnt++;
+                        scan[w] = G.begin(w);
+                        stack[sp++] = w;
+                    }
+
+                    // back edge; its other direction is skipped when seen from w
+                    else if (pre[w] < pre[v]) {
+                        edges[top++] = e;
+                        low[v] = Math.min(low[v], pre[w]);
+                    }
+                }
+                else {
+                    sp--;
+                    if (parent[v] == -1) continue;
+                    int u = G.from(parent[v]);
+
+                    // update low number
+                    low[u] = Math.min(low[u], low[v]);
+
+                    // the edges above parent[v] form a block if nothing below v reaches above u;
+                    // then a non-root u is an articulation point
+                    if (low[v] >= pre[u]) {
+                        if (u != s) articulation[u] = true;
+                        int f;
+                        links[blocks] = 0;
+                        do {
+                            f = edges[--top];
+                            component[f] = blocks;
+                            if (G.twin(f) != -1) component[G.twin(f)] = blocks;
+                            links[blocks]++;
+                        } while (f != parent[v]);
+                        blocks++;
+                    }
+                }
             }
 
-            // update low number - ignore reverse of edge leading to v
-            else if (currentVertex != u)
-                low[v] = Math.min(low[v], pre[currentVertex]);
+            // root of DFS is an articulation point if it has more than 1 child
+            if (children > 1) articulation[s] = true;
         }
-
-        // root of DFS is an articulation point if it has more than 1 child
-        if (u == v && children > 1)
-            articulation[v] = true;
+        components = blocks;
     }
 
     // is vertex v an articulation point?
-    public boolean isArticulation(int v) { return articulation[v]; }
-	public boolean isVisited(int v) { return pre[v] != -1; }
+    public boolean isArticulation(int v) { return work.articulation[v]; }
+	public boolean isVisited(int v) { return work.pre[v] != -1; }
 
-    /* test client
-    public static void main(String[] args) {
-        int V = Integer.parseInt(args[0]);
-        int E = Integer.parseInt(args[1]);
-        Graph G = GraphGenerator.simple(V, E);
-        StdOut.println(G);
+    // the search tree, for classes that build on it: preorder number of v, or -1 if
+    // v was not visited, and the edge by which v was reached, or -1 for a root
+    int pre(int v)    { return work.pre[v]; }
+    int parent(int v) { return work.parent[v]; }
+
+    /**
+     * Returns the number of biconnected components (blocks).
+     *
+     * @return the number of blocks
+     */
+    public int components() {
+        return components;
+    }
+
+    /**
+     * Returns the block that edge {@code e} belongs to.
+     *
+     * @param  e the edge number
+     * @return the block of edge {@code e}, between 0 and {@code components() - 1},
+     *         or -1 if {@code e} is a self-loop or hidden
+     */
+    public int component(int e) {
+        return work.component[e];
+    }
 
+    /**
+     * Returns true if the link under edge {@code e} is a bridge, that is, if
+     * removing it disconnects its endpoints.
+     *
+     * @param  e the edge number
+     * @return {@code true} if edge {@code e} is a bridge; {@code false} otherwise
+     */
+    public boolean isBridge(int e) {
+        int c = work.component[e];
+        return c != -1 && work.links[c] == 1;
+    }
+
+    /**
+     * Returns the bridges, one edge per link.
+     *
+     * @return the bridges
+     */
+    public Iterable<Edge> bridges() {
+        Queue<Edge> bridges = new Queue<Edge>();
+        for (int e = 0; e < G.E(); e++)
+            if (e < G.twin(e) && isBridge(e)) bridges.enqueue(G.edge(e));
+        return bridges;
+    }
+
+    /**
+     * Unit tests the {@code Biconnected} data type by printing the
+     * articulation points, the bridges and the number of blocks of a topology.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
         Biconnected bic = new Biconnected(G);
 
         // print out articulation points
-        StdOut.println();
         StdOut.println("Articulation points");
         StdOut.println("-------------------");
         for (int v = 0; v < G.V(); v++)
             if (bic.isArticulation(v)) StdOut.println(v);
-    }*/
 
+        StdOut.println();
+        StdOut.println("Bridges");
+        StdOut.println("-------");
+        for (Edge e : bic.bridges())
+            StdOut.println(e.from() + "-" + e.to());
 
-}
\ No newline at end of file
+        StdOut.println();
+        StdOut.println(bic.components() + " biconnected components");
+    }
+}
@@ -0,0 +1,268 @@
+/******************************************************************************
+ *  Compilation:  javac BidirectionalDijkstra.java
+ *  Execution:    java BidirectionalDijkstra topology.txt < pairs.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java DoubleIndexMinPQ.java
+ *                DijkstraSP.java Stack.java Edge.java ParallelTopologyLoader.java
+ *                StdIn.java StdOut.java
+ *
+ *  Answers point-to-point lowest latency queries, one pair "s t" per
+ *  line of standard input, with Dijkstra's algorithm run from both ends.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code BidirectionalDijkstra} class answers shortest path queries
+ *  between one source and one target vertex in an edge-weighted digraph
+ *  whose edge weights are nonnegative, many times over the same digraph.
+ *  <p>
+ *  Each query runs Dijkstra's algorithm forward from {@code s} over the
+ *  edges out of each vertex and backward from {@code t} over the edges into
+ *  each vertex, always advancing whichever search has the smaller distance
+ *  to settle next. Whenever an edge joins the two searches, the path through
+ *  it is a candidate, and the query ends once the two smallest distances
+ *  still queued add up to no less than the best candidate. Each search then
+ *  covers a ball about half the radius of the one {@link DijkstraSP} would,
+ *  which on a large topology is a small fraction of the vertices.
+ *  <p>
+ *  The edges into each vertex are indexed once, when the object is built,
+ *  and all the arrays are kept between queries. Only the entries a query
+ *  touched are reset afterwards, so a query costs time proportional to the
+ *  part of the graph it searches, not to <em>V</em>. Building the object
+ *  takes time and space proportional to <em>V</em> + <em>E</em>. Every
+ *  query searches afresh, so a view such as {@link MaskedDigraph} may change
+ *  between queries; {@code pathTo()} alone gives both the path and, from
+ *  its edges, its length. An object is not safe to query from more than
+ *  one thread at a time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class BidirectionalDijkstra {
+    private final IndexedDigraph G;
+    private final int[] inStart;        // edges into v are inEdge[inStart[v]..inStart[v+1])
+    private final int[] inEdge;
+    private final double[] distFrom;    // length of shortest known path from s to v
+    private final double[] distTo;      // length of shortest known path from v to t
+    private final int[] edgeFrom;       // last edge on that path from s to v, or -1
+    private final int[] edgeTo;         // first edge on that path from v to t, or -1
+    private final DoubleIndexMinPQ forward, backward;
+    private final int[] touched;        // vertices whose entries the last query set
+    private int count;
+    private double best;                // length of the shortest s-t path found
+    private int meet;                   // the edge where that path crosses between the searches
+
+    /**
+     * Prepares to answer queries on an edge-weighted digraph.
+     *
+     * @param  G the edge-weighted digraph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public BidirectionalDijkstra(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Prepares to answer queries on an edge-numbered digraph.
+     *
+     * @param  G the edge-weighted digraph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public BidirectionalDijkstra(IndexedDigraph G) {
+        this.G = G;
+        int V = G.V(), E = G.E();
+        for (int e = 0; e < E; e++)
+            if (G.hasEdge(e) && G.weight(e) < 0)
+                throw new IllegalArgumentException("edge " + G.edge(e) + " has negative weight");
+
+        // the reverse adjacency, by a counting sort of the edges on target
+        inStart = new int[V+1];
+        inEdge = new int[E];
+        for (int e = 0; e < E; e++)
+            inStart[G.to(e)+1]++;
+        for (int v = 0; v < V; v++)
+            inStart[v+1] += inStart[v];
+        int[] next = new int[V];
+        System.arraycopy(inStart, 0, next, 0, V);
+        for (int e = 0; e < E; e++)
+            inEdge[next[G.to(e)]++] = e;
+
+        distFrom = new double[V];
+        distTo = new double[V];
+        edgeFrom = new int[V];
+        edgeTo = new int[V];
+        for (int v = 0; v < V; v++) {
+            distFrom[v] = distTo[v] = Double.POSITIVE_INFINITY;
+            edgeFrom[v] = edgeTo[v] = -1;
+        }
+        forward = new DoubleIndexMinPQ(V);
+        backward = new DoubleIndexMinPQ(V);
+        touched = new int[V];
+    }
+
+    // find a shortest path from s to t
+    private void search(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+
+        // undo the last query
+        for (int i = 0; i < count; i++) {
+            int v = touched[i];
+            distFrom[v] = distTo[v] = Double.POSITIVE_INFINITY;
+            edgeFrom[v] = edgeTo[v] = -1;
+        }
+        count = 0;
+        forward.clear();
+        backward.clear();
+        best = s == t ? 0.0 : Double.POSITIVE_INFINITY;
+        meet = -1;
+
+        touch(s);
+        distFrom[s] = 0.0;
+        forward.insert(s, 0.0);
+        touch(t);
+        distTo[t] = 0.0;
+        backward.insert(t, 0.0);
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            if (forward.minKey() + backward.minKey() >= best) break;
+            if (forward.minKey() <= backward.minKey()) {
+                int v = forward.delMin();
+                for (int e = G.begin(v); e < G.end(v); e++)
+                    if (G.hasEdge(e)) relaxForward(e);
+            }
+            else {
+                int v = backward.delMin();
+                for (int i = inStart[v]; i < inStart[v+1]; i++)
+                    if (G.hasEdge(inEdge[i])) relaxBackward(inEdge[i]);
+            }
+        }
+    }
+
+    // relax edge e = v->w in the search from s
+    private void relaxForward(int e) {
+        int v = G.from(e), w = G.to(e);
+        double d = distFrom[v] + G.weight(e);
+        if (d < distFrom[w]) {
+            touch(w);
+            distFrom[w] = d;
+            edgeFrom[w] = e;
+            if (forward.contains(w)) forward.decreaseKey(w, d);
+            else                     forward.insert(w, d);
+        }
+        if (d + distTo[w] < best) {
+            best = d + distTo[w];
+            meet = e;
+        }
+    }
+
+    // relax edge e = v->w in the search from t
+    private void relaxBackward(int e) {
+        int v = G.from(e), w = G.to(e);
+        double d = G.weight(e) + distTo[w];
+        if (d < distTo[v]) {
+            touch(v);
+            distTo[v] = d;
+            edgeTo[v] = e;
+            if (backward.contains(v)) backward.decreaseKey(v, d);
+            else                      backward.insert(v, d);
+        }
+        if (distFrom[v] + d < best) {
+            best = distFrom[v] + d;
+            meet = e;
+        }
+    }
+
+    // remember to reset v, unless it already is remembered
+    private void touch(int v) {
+        if (distFrom[v] == Double.POSITIVE_INFINITY && distTo[v] == Double.POSITIVE_INFINITY)
+            touched[count++] = v;
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double distTo(int s, int t) {
+        search(s, t);
+        return best;
+    }
+
+    /**
+     * Returns true if there is a path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t};
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPathTo(int s, int t) {
+        return distTo(s, t) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a shortest path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return a shortest path from {@code s} to {@code t} as an iterable of
+     *         edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<Edge> pathTo(int s, int t) {
+        search(s, t);
+        if (best == Double.POSITIVE_INFINITY) return null;
+        Stack<Edge> path = new Stack<Edge>();
+        if (meet == -1) return path;
+
+        // the part from the meeting edge to t, pushed last edge first
+        Stack<Edge> tail = new Stack<Edge>();
+        for (int e = edgeTo[G.to(meet)]; e != -1; e = edgeTo[G.to(e)])
+            tail.push(G.edge(e));
+        for (Edge e : tail)
+            path.push(e);
+        path.push(G.edge(meet));
+        for (int e = edgeFrom[G.from(meet)]; e != -1; e = edgeFrom[G.from(e)])
+            path.push(G.edge(e));
+        return path;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distFrom.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code BidirectionalDijkstra} data type by answering the
+     * pairs of vertices read from standard input.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = ParallelTopologyLoader.load(args[0]);
+        BidirectionalDijkstra sp = new BidirectionalDijkstra(G);
+        while (!StdIn.isEmpty()) {
+            int s = StdIn.readInt(), t = StdIn.readInt();
+            Iterable<Edge> path = sp.pathTo(s, t);
+            if (path != null) {
+                double length = 0.0;
+                for (Edge e : path)
+                    length += e.weight();
+                StdOut.printf("%d to %d (%.9f)  ", s, t, length);
+                for (Edge e : path) {
+                    StdOut.print(e.from() + "->" + e.to() + "  ");
+                }
+                StdOut.println();
+            }
+            else {
+                StdOut.printf("%d to %d         no path\n", s, t);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/******************************************************************************
+ *  Compilation:  javac BlockCutTree.java
+ *  Execution:    java BlockCutTree topology.txt < queries.txt
+ *  Dependencies: Biconnected.java IndexedDigraph.java EdgeWeightedDigraph.java
+ *                In.java StdIn.java StdOut.java
+ *
+ *  Builds the block-cut tree of a topology once and answers resilience
+ *  queries against it without searching the graph again. Each query is a
+ *  line "x u w": does the failure of x separate u from w?
+ *
+ *  % java BlockCutTree topology.txt
+ *  3 0 5
+ *  vertex 3 separates 0 from 5: false (0 vertices would)
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code BlockCutTree} class represents the block-cut tree of an
+ *  undirected topology: one node per biconnected component (block) and one
+ *  per articulation point, with an edge between an articulation point and
+ *  every block containing it. A vertex that is not an articulation point is
+ *  represented by the node of its block; a vertex in no block gets a node of
+ *  its own. Each connected component of the topology is one tree.
+ *  <p>
+ *  Two vertices are in the same block when their nodes are equal or at most
+ *  two tree edges apart through a common block, which takes constant time to
+ *  check from the parent pointers. The vertices whose failure separates
+ *  {@code u} from {@code w} are exactly the articulation points on the tree
+ *  path between their nodes, so such queries take one lowest-common-ancestor
+ *  computation. Ancestors are found with jump pointers (Myers 1983), which
+ *  take logarithmic time and one extra int per node, instead of the
+ *  <em>V</em> log <em>V</em> table of binary lifting.
+ *  <p>
+ *  The constructor runs {@link Biconnected} and takes time proportional to
+ *  <em>V</em> + <em>E</em>. {@code connected()} and {@code sameBlock()} take
+ *  constant time; {@code separates()} and {@code separators()} take time
+ *  logarithmic in <em>V</em>.
+ *
+ *  @author Daniel O'Neill
+ */
+public class BlockCutTree {
+    private final int V;
+    private final int blocks;      // nodes 0 .. blocks-1 are blocks
+    private final int cutEnd;      // nodes blocks .. cutEnd-1 are articulation points
+    private final int[] node;      // tree node representing vertex v
+    private final int[] cutNode;   // node of articulation point v, or -1
+    private final int[] parent;    // parent of tree node x, or x for a root
+    private final int[] jump;      // jump pointer of tree node x
+    private final int[] depth;     // depth of tree node x
+    private final int[] cuts;      // articulation points from the root to x, inclusive
+    private final int[] tree;      // root of the tree containing node x
+    private final int[] tin, tout; // x is an ancestor of y iff tin[x] <= tin[y] && tout[y] <= tout[x]
+
+    /**
+     * Builds the block-cut tree of {@code G}.
+     *
+     * @param  G the edge-weighted digraph
+     */
+    public BlockCutTree(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Builds the block-cut tree of {@code G}, whose links must have an edge
+     * in each direction.
+     *
+     * @param  G the digraph
+     */
+    public BlockCutTree(IndexedDigraph G) {
+        V = G.V();
+        Biconnected bic = new Biconnected(G);
+        blocks = bic.components();
+
+        // number the nodes: blocks, then articulation points, then vertices in no block
+        node = new int[V];
+        cutNode = new int[V];
+        Arrays.fill(node, -1);
+        Arrays.fill(cutNode, -1);
+        int N = blocks;
+        for (int v = 0; v < V; v++)
+            if (bic.isArticulation(v)) node[v] = cutNode[v] = N++;
+        cutEnd = N;
+        for (int v = 0; v < V; v++) {
+            if (node[v] != -1) continue;
+            for (int e = G.begin(v); e < G.end(v); e++)
+                if (bic.component(e) != -1) {
+                    node[v] = bic.component(e);
+                    break;
+                }
+        }
+        for (int v = 0; v < V; v++)
+            if (node[v] == -1) node[v] = N++;
+
+        // tree edges: block c to each articulation point on one of its edges, without repeats
+        int[] degree = new int[N+1];
+        int[] seen = new int[V];
+        Arrays.fill(seen, -1);
+        int[] pairBlock = new int[2*blocks + V], pairCut = new int[2*blocks + V];
+        int pairs = 0;
+        int[] order = blockOrder(G, bic);
+        for (int k = 0; k < order.length; k++) {
+            int e = order[k], c = bic.component(e);
+            for (int end = 0; end < 2; end++) {
+                int v = end == 0 ? G.from(e) : G.to(e);
+                if (cutNode[v] == -1 || seen[v] == c) continue;
+                seen[v] = c;
+                pairBlock[pairs] = c;
+                pairCut[pairs] = cutNode[v];
+                pairs++;
+                degree[c+1]++;
+                degree[cutNode[v]+1]++;
+            }
+        }
+        for (int x = 0; x < N; x++)
+            degree[x+1] += degree[x];
+        int[] adj = new int[degree[N]];
+        int[] next = Arrays.copyOf(degree, N);
+        for (int p = 0; p < pairs; p++) {
+            adj[next[pairBlock[p]]++] = pairCut[p];
+            adj[next[pairCut[p]]++] = pairBlock[p];
+        }
+
+        // iterative depth-first search of each tree
+        parent = new int[N];
+        jump   = new int[N];
+        depth  = new int[N];
+        cuts   = new int[N];
+        tree   = new int[N];
+        tin    = new int[N];
+        tout   = new int[N];
+        Arrays.fill(parent, -1);
+        int[] stack = new int[N];
+        int[] scan = new int[N];
+        int clock = 0;
+        for (int r = 0; r < N; r++) {
+            if (parent[r] != -1) continue;
+            parent[r] = jump[r] = tree[r] = r;
+            cuts[r] = isCut(r) ? 1 : 0;
+            tin[r] = clock++;
+            scan[r] = degree[r];
+            int sp = 0;
+            stack[sp++] = r;
+            while (sp > 0) {
+                int x = stack[sp-1];
+                if (scan[x] < degree[x+1]) {
+                    int y = adj[scan[x]++];
+                    if (parent[y] != -1) continue;
+                    parent[y] = x;
+                    depth[y] = depth[x] + 1;
+                    int j = jump[x];
+                    jump[y] = depth[x] - depth[j] == depth[j] - depth[jump[j]] ? jump[j] : x;
+                    cuts[y] = cuts[x] + (isCut(y) ? 1 : 0);
+                    tree[y] = r;
+                    tin[y] = clock++;
+                    scan[y] = degree[y];
+                    stack[sp++] = y;
+                }
+                else {
+                    tout[x] = clock++;
+                    sp--;
+                }
+            }
+        }
+    }
+
+    // the edges of G that lie in a block, one per link, grouped by block
+    private static int[] blockOrder(IndexedDigraph G, Biconnected bic) {
+        int B = bic.components();
+        int[] first = new int[B+1];
+        for (int e = 0; e < G.E(); e++)
+            if (bic.component(e) != -1 && (G.twin(e) == -1 || e < G.twin(e)))
+                first[bic.component(e)+1]++;
+        for (int c = 0; c < B; c++)
+            first[c+1] += first[c];
+        int[] order = new int[first[B]];
+        for (int e = 0; e < G.E(); e++)
+            if (bic.component(e) != -1 && (G.twin(e) == -1 || e < G.twin(e)))
+                order[first[bic.component(e)]++] = e;
+        return order;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of biconnected components
+     */
+    public int blocks() {
+        return blocks;
+    }
+
+    /**
+     * Returns true if vertices {@code u} and {@code w} are connected.
+     *
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return {@code true} if {@code u} and {@code w} are connected; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= u < V} and {@code 0 <= w < V}
+     */
+    public boolean connected(int u, int w) {
+        validateVertex(u);
+        validateVertex(w);
+        return tree[node[u]] == tree[node[w]];
+    }
+
+    /**
+     * Returns true if vertices {@code u} and {@code w} lie in a common block,
+     * that is, if no single failure of another vertex separates them.
+     *
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return {@code true} if {@code u} and {@code w} share a biconnected component;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= u < V} and {@code 0 <= w < V}
+     */
+    public boolean sameBlock(int u, int w) {
+        validateVertex(u);
+        validateVertex(w);
+        if (u == w) return true;
+        int a = node[u], b = node[w];
+        if (a >= cutEnd || b >= cutEnd) return false;           // u or w is in no block
+        if (a < blocks && b < blocks) return a == b;
+        if (a < blocks) return parent[b] == a || parent[a] == b;
+        if (b < blocks) return parent[a] == b || parent[b] == a;
+        // two articulation points: siblings under a block, or one's grandparent
+        return (parent[a] == parent[b] && parent[a] != a)
+            || (parent[a] != a && parent[parent[a]] == b)
+            || (parent[b] != b && parent[parent[b]] == a);
+    }
+
+    /**
+     * Returns true if the failure of vertex {@code x} disconnects {@code u}
+     * from {@code w}. Connected vertices are never separated by one of themselves.
+     *
+     * @param  x the failed vertex
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return {@code true} if {@code u} and {@code w} are connected, differ from {@code x},
+     *         and every path between them passes through {@code x}; {@code false} otherwise
+     * @throws IllegalArgumentException unless all three vertices are between 0 and {@code V-1}
+     */
+    public boolean separates(int x, int u, int w) {
+        validateVertex(x);
+        if (x == u || x == w || !connected(u, w) || cutNode[x] == -1) return false;
+        int c = cutNode[x], a = node[u], b = node[w];
+        if (tree[c] != tree[a]) return false;
+        return (isAncestor(c, a) || isAncestor(c, b)) && isAncestor(lca(a, b), c);
+    }
+
+    /**
+     * Returns the number of vertices, other than {@code u} and {@code w},
+     * whose failure alone disconnects {@code u} from {@code w}.
+     *
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return the number of single points of failure between {@code u} and {@code w},
+     *         or -1 if they are not connected
+     * @throws IllegalArgumentException unless {@code 0 <= u < V} and {@code 0 <= w < V}
+     */
+    public int separators(int u, int w) {
+        if (!connected(u, w)) return -1;
+        if (u == w) return 0;
+        int a = node[u], b = node[w], l = lca(a, b);
+        int count = cuts[a] + cuts[b] - 2*cuts[l] + (isCut(l) ? 1 : 0);
+        if (cutNode[u] != -1) count--;
+        if (cutNode[w] != -1) count--;
+        return count;
+    }
+
+    // is tree node x an articulation point?
+    private boolean isCut(int x) {
+        return x >= blocks && x < cutEnd;
+    }
+
+    // is tree node x an ancestor of (or equal to) tree node y?
+    private boolean isAncestor(int x, int y) {
+        return tin[x] <= tin[y] && tout[y] <= tout[x];
+    }
+
+    // lowest common ancestor of two nodes of the same tree, climbing by jump pointers
+    private int lca(int a, int b) {
+        if (depth[a] < depth[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        while (depth[a] > depth[b])
+            a = depth[jump[a]] >= depth[b] ? jump[a] : parent[a];
+        while (a != b) {
+            if (jump[a] != jump[b]) {
+                a = jump[a];
+                b = jump[b];
+            }
+            else {
+                a = parent[a];
+                b = parent[b];
+            }
+        }
+        return a;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code BlockCutTree} data type by answering queries
+     * "x u w" read from standard input.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        BlockCutTree bct = new BlockCutTree(new EdgeWeightedDigraph(new In(args[0])));
+        while (!StdIn.isEmpty()) {
+            int x = StdIn.readInt(), u = StdIn.readInt(), w = StdIn.readInt();
+            StdOut.println("vertex " + x + " separates " + u + " from " + w + ": " + bct.separates(x, u, w)
+                           + " (" + bct.separators(u, w) + " vertices would)");
+        }
+    }
+}
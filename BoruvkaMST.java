@@ -0,0 +1,240 @@
+/******************************************************************************
+ *  Compilation:  javac BoruvkaMST.java
+ *  Execution:    java BoruvkaMST filename.txt
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java Edge.java Queue.java
+ *                ConcurrentUF.java UF.java ParallelFor.java ParallelTopologyLoader.java
+ *                PrimMST.java StdOut.java
+ *
+ *  Compute a minimum spanning forest using Boruvka's algorithm, with the
+ *  lightest edge out of every component found on all cores at once.
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code BoruvkaMST} class represents a data type for computing a
+ *  <em>minimum spanning tree</em> in an edge-weighted graph.
+ *  The edge weights can be positive, zero, or negative and need not
+ *  be distinct. If the graph is not connected, it computes a <em>minimum
+ *  spanning forest</em>, which is the union of minimum spanning trees
+ *  in each connected component. The {@code weight()} method returns the
+ *  weight of a minimum spanning tree and the {@code edges()} method
+ *  returns its edges.
+ *  <p>
+ *  This implementation uses <em>Boruvka's algorithm</em>, whose work
+ *  splits across cores where Prim's cannot. Each round does two things.
+ *  First every vertex, in parallel, finds its lightest edge to another
+ *  component and offers it to its component with a compare-and-set, so
+ *  each component ends up with its lightest outgoing edge. Then all those
+ *  edges are merged at once with a {@link ConcurrentUF}; when two
+ *  components chose the same link, only one union succeeds and the link
+ *  joins the tree once. Ties are broken by link id, so the chosen edges
+ *  never form a cycle. Every round at least halves the number of
+ *  components, and vertices with no edge left to another component are
+ *  dropped from later rounds.
+ *  <p>
+ *  The constructor takes time proportional to <em>E</em> log <em>V</em>
+ *  and extra space (not including the graph) proportional to
+ *  <em>V</em> + <em>E</em>. Afterwards, the {@code weight()} method takes
+ *  constant time and the {@code edges()} method takes time proportional
+ *  to <em>V</em>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *
+ *  @author Daniel O'Neill
+ */
+public class BoruvkaMST {
+    private final Queue<Edge> mst = new Queue<Edge>();    // edges in MST
+    private double weight;                                 // weight of MST
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-weighted graph
+     * on the common fork/join pool.
+     * @param G the edge-weighted graph
+     */
+    public BoruvkaMST(EdgeWeightedDigraph G) {
+        this(G.freeze(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-numbered graph
+     * on the given fork/join pool.
+     * @param G the edge-weighted graph
+     * @param pool the pool to run each round on
+     */
+    public BoruvkaMST(IndexedDigraph G, ForkJoinPool pool) {
+        int V = G.V();
+        ConcurrentUF uf = new ConcurrentUF(V);
+        AtomicIntegerArray best = new AtomicIntegerArray(V);   // lightest edge out of component root r, or -1
+        boolean[] inTree = new boolean[G.E()];
+        boolean[] hasOut = new boolean[V];
+        int[] roots = new int[V];
+        AtomicInteger offered = new AtomicInteger();
+        for (int v = 0; v < V; v++)
+            best.set(v, -1);
+
+        // the vertices that may still have an edge to another component
+        int[] live = new int[V];
+        int n = 0;
+        for (int v = 0; v < V; v++)
+            if (G.hasVertex(v)) live[n++] = v;
+
+        while (n > 0) {
+            final int[] current = live;
+            final int size = n;
+            offered.set(0);
+
+            // every live vertex offers its lightest edge out of its component
+            ParallelFor.range(pool, size, i -> {
+                int v = current[i], root = uf.find(v), min = -1;
+                for (int e = G.begin(v); e < G.end(v); e++) {
+                    if (!G.hasEdge(e) || (min != -1 && !less(G, e, min))) continue;
+                    if (uf.find(G.to(e)) != root) min = e;
+                }
+                hasOut[v] = min != -1;
+                if (min == -1) return;
+                while (true) {
+                    int f = best.get(root);
+                    if (f != -1 && !less(G, min, f)) break;
+                    if (best.compareAndSet(root, f, min)) {
+                        if (f == -1) roots[offered.getAndIncrement()] = root;
+                        break;
+                    }
+                }
+            });
+
+            // merge along the chosen edges
+            int components = offered.get();
+            if (components == 0) break;
+            ParallelFor.range(pool, components, i -> {
+                int e = best.get(roots[i]);
+                best.set(roots[i], -1);
+                if (uf.union(G.from(e), G.to(e))) inTree[e] = true;
+            });
+
+            // drop the vertices that had nothing to offer
+            int kept = 0;
+            for (int i = 0; i < size; i++)
+                if (hasOut[current[i]]) live[kept++] = current[i];
+            n = kept;
+        }
+
+        for (int e = 0; e < G.E(); e++) {
+            if (inTree[e]) {
+                mst.enqueue(G.edge(e));
+                weight += G.weight(e);
+            }
+        }
+
+        // check optimality conditions
+        assert check(G);
+    }
+
+    // is edge e lighter than edge f? ties are broken by link id
+    private static boolean less(IndexedDigraph G, int e, int f) {
+        double a = G.weight(e), b = G.weight(f);
+        if (a != b) return a < b;
+        return G.link(e) < G.link(f);
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // check optimality conditions (takes time proportional to E V lg* V)
+    private boolean check(IndexedDigraph G) {
+
+        // check weight
+        double totalWeight = 0.0;
+        for (Edge e : edges()) {
+            totalWeight += e.weight();
+        }
+        if (Math.abs(totalWeight - weight()) > 1E-12 * Math.max(1.0, Math.abs(totalWeight))) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight());
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (Edge e : edges()) {
+            int v = e.from(), w = e.to();
+            if (uf.connected(v, w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (int e = 0; e < G.E(); e++) {
+            if (G.hasEdge(e) && !uf.connected(G.from(e), G.to(e))) {
+                System.err.println("Not a spanning forest");
+                return false;
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        for (Edge e : edges()) {
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (Edge f : mst) {
+                if (f != e) uf.union(f.from(), f.to());
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (int f = 0; f < G.E(); f++) {
+                int x = G.from(f), y = G.to(f);
+                if (G.hasEdge(f) && !uf.connected(x, y)) {
+                    if (G.weight(f) < e.weight()) {
+                        System.err.println("Edge " + G.edge(f) + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code BoruvkaMST} data type by comparing it with
+     * {@link PrimMST} and printing how long each took.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = ParallelTopologyLoader.load(args[0]);
+        CSRDigraph H = G.freeze();
+        long start = System.nanoTime();
+        BoruvkaMST boruvka = new BoruvkaMST(H, ForkJoinPool.commonPool());
+        long parallel = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        PrimMST prim = new PrimMST(H);
+        long sequential = System.nanoTime() - start;
+
+        StdOut.printf("BoruvkaMST (%d threads): %5d ms, weight %.5f%n",
+                      ForkJoinPool.commonPool().getParallelism(), parallel / 1000000, boruvka.weight());
+        StdOut.printf("PrimMST:                 %5d ms, weight %.5f%n", sequential / 1000000, prim.weight());
+    }
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac BreadthFirstPaths.java
  *  Execution:    java BreadthFirstPaths G s
- *  Dependencies: Graph.java Queue.java Stack.java StdOut.java
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java Stack.java StdOut.java
  *  Data files:   http://algs4.cs.princeton.edu/41graph/tinyCG.txt
  *                http://algs4.cs.princeton.edu/41graph/tinyG.txt
  *                http://algs4.cs.princeton.edu/41graph/mediumG.txt
@@ -38,7 +38,6 @@
  *
  ******************************************************************************/
 
-import java.util.Iterator;
 /**
  *  The {@code BreadthFirstPaths} class represents a data type for finding
  *  shortest paths (number of edges) from a source vertex <em>s</em>
@@ -70,6 +69,17 @@ public class BreadthFirstPaths {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public BreadthFirstPaths(EdgeWeightedDigraph G, int s) {
+        this(G.freeze(), s);
+    }
+
+    /**
+     * Computes the shortest path between the source vertex {@code s}
+     * and every other vertex in the edge-numbered graph {@code G}.
+     * @param G the graph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public BreadthFirstPaths(IndexedDigraph G, int s) {
         marked = new boolean[G.V()];
         distTo = new int[G.V()];
         edgeTo = new int[G.V()];
@@ -99,8 +109,10 @@ public class BreadthFirstPaths {
 
 	*/
     // breadth-first search from a single source
-    private void bfs(EdgeWeightedDigraph G, int s) {
-        Queue<Integer> q = new Queue<Integer>();
+    private void bfs(IndexedDigraph G, int s) {
+		//every vertex is enqueued at most once, so an array of size V is enough
+        int[] q = new int[G.V()];
+        int head = 0, tail = 0;
         for (int v = 0; v < G.V(); v++)
             distTo[v] = INFINITY;
 		//number of nodes to get to s from source
@@ -108,24 +120,22 @@ public class BreadthFirstPaths {
 		//vistied = true
         marked[s] = true;
 		//add your source to the q
-        q.enqueue(s);
-        while (!q.isEmpty()) {
+        q[tail++] = s;
+        while (head < tail) {
 			//pop off the q
 			//save for previous array
-            int v = q.dequeue();
-			int adjListSize = G.outdegree(v);
-			//create an iterator to iterate through adjacenecy list entries
-			Iterator<Edge> i = G.adj(v).iterator();
-			//for every entry in adjacency list
-            for (int w=0;w<adjListSize; w++) {
-				Edge e = i.next();
-				int currentVertex = e.to();
+            int v = q[head++];
+			//for every entry in the adjacency range of v
+            for (int e = G.begin(v); e < G.end(v); e++) {
+				//skip links hidden by a view
+				if (!G.hasEdge(e)) continue;
+				int currentVertex = G.to(e);
 				//if you havent visited, then visit
                 if (!marked[currentVertex]) {
                     edgeTo[currentVertex] = v;
                     distTo[currentVertex] = distTo[v] + 1;
                     marked[currentVertex] = true;
-                    q.enqueue(currentVertex);
+                    q[tail++] = currentVertex;
                 }
             }
         }
@@ -195,7 +205,7 @@ public class BreadthFirstPaths {
 
 
     // check optimality conditions for single source
-    private boolean check(EdgeWeightedDigraph G, int s) {
+    private boolean check(IndexedDigraph G, int s) {
 
         // check that the distance of s = 0
         if (distTo[s] != 0) {
@@ -207,15 +217,14 @@ public class BreadthFirstPaths {
         // provided v is reachable from s
 		//for each vertex
         for (int v = 0; v < G.V(); v++) {
-			//for each associated adjacency list
-            for (int w=0;w<G.outdegree(v); w++) {
-				Iterator<Edge> i = G.adj(v).iterator();
-				Edge e = i.next();
-				int currentVertex = e.to();
-                if (hasPathTo(v) != hasPathTo(w)) {
+			//for each edge in its adjacency range
+            for (int e = G.begin(v); e < G.end(v); e++) {
+				if (!G.hasEdge(e)) continue;
+				int currentVertex = G.to(e);
+                if (hasPathTo(v) && !hasPathTo(currentVertex)) {
                     StdOut.println("edge " + v + "-" + currentVertex);
                     StdOut.println("hasPathTo(" + v + ") = " + hasPathTo(v));
-                    StdOut.println("hasPathTo(" + currentVertex + ") = " + hasPathTo(w));
+                    StdOut.println("hasPathTo(" + currentVertex + ") = " + hasPathTo(currentVertex));
                     return false;
                 }
                 if (hasPathTo(v) && (distTo[currentVertex] > distTo[v] + 1)) {
@@ -0,0 +1,293 @@
+/******************************************************************************
+ *  Compilation:  javac CSRDigraph.java
+ *  Execution:    java CSRDigraph digraph.txt
+ *  Dependencies: EdgeWeightedDigraph.java EdgeTable.java Edge.java In.java StdOut.java
+ *
+ *  A frozen edge-weighted digraph, stored on the heap in compressed sparse row form.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code CSRDigraph} class represents an immutable edge-weighted
+ *  digraph of vertices named 0 through <em>V</em> - 1, stored in
+ *  <em>compressed sparse row</em> (CSR) form.
+ *  <p>
+ *  The directed edges are numbered 0 through <em>E</em> - 1 and are grouped
+ *  by source vertex: the edges incident from vertex {@code v} are exactly the
+ *  edges numbered {@code begin(v)} through {@code end(v) - 1}, sorted by
+ *  target vertex. The endpoints, weight and bandwidth of every edge are kept
+ *  in packed primitive arrays indexed by edge number, so the algorithms can
+ *  scan an adjacency list as a contiguous range of memory instead of chasing
+ *  the linked nodes of a {@link Bag}.
+ *  <p>
+ *  Every link of the {@link EdgeTable} behind an {@link EdgeWeightedDigraph}
+ *  is stored as a pair of opposite directed edges. The {@code twin()} method
+ *  returns the opposite edge of such a pair (or -1 if there is none), which is
+ *  what the max-flow code uses as the residual edge, and {@code link()}
+ *  returns the edge id of the link itself.
+ *  <p>
+ *  The constructor takes time proportional to <em>V</em> + <em>E</em>.
+ *  All other operations take constant time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class CSRDigraph implements IndexedDigraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V;              // number of vertices
+    private final int E;              // number of directed edges
+    private final int[] offset;       // edges incident from v are offset[v] .. offset[v+1]-1
+    private final int[] from;         // from[e] = source vertex of edge e
+    private final int[] to;           // to[e] = target vertex of edge e
+    private final double[] weight;    // weight[e] = latency of edge e
+    private final int[] bandwidth;    // bandwidth[e] = capacity of edge e
+    private final int[] twin;         // twin[e] = opposite edge of the same link, or -1
+    private final int[] link;         // link[e] = edge id of the link e runs over
+    private final EdgeTable links;    // the links, for building Edge views
+
+    /**
+     * Freezes the specified edge-weighted digraph into compressed sparse row form.
+     * Later changes to {@code G} are not reflected in this digraph.
+     *
+     * @param  G the edge-weighted digraph
+     */
+    public CSRDigraph(EdgeWeightedDigraph G) {
+        links = G.links();
+        V = G.V();
+        int n = links.size();
+        E = 2*n;
+
+        offset    = new int[V+1];
+        from      = new int[E];
+        to        = new int[E];
+        weight    = new double[E];
+        bandwidth = new int[E];
+        twin      = new int[E];
+        link      = new int[E];
+
+        // directed edge 2*id runs from -> to over link id, 2*id+1 runs back;
+        // counting sort these on target, then a stable distribution on source,
+        // leaves each adjacency range sorted by target vertex
+        int[] count = new int[V+1];
+        for (int id = 0; id < n; id++) {
+            count[links.to(id)+1]++;
+            count[links.from(id)+1]++;
+        }
+        for (int v = 0; v < V; v++)
+            count[v+1] += count[v];
+        int[] byTarget = new int[E];
+        for (int id = 0; id < n; id++) {
+            byTarget[count[links.to(id)]++]   = 2*id;
+            byTarget[count[links.from(id)]++] = 2*id+1;
+        }
+
+        for (int id = 0; id < n; id++) {
+            offset[links.from(id)+1]++;
+            offset[links.to(id)+1]++;
+        }
+        for (int v = 0; v < V; v++)
+            offset[v+1] += offset[v];
+        int[] next = new int[V];
+        for (int v = 0; v < V; v++)
+            next[v] = offset[v];
+        int[] position = new int[E];
+        for (int k = 0; k < E; k++) {
+            int d = byTarget[k], id = d/2;
+            int v = (d % 2 == 0) ? links.from(id) : links.to(id);
+            int w = (d % 2 == 0) ? links.to(id)   : links.from(id);
+            int i = next[v]++;
+            from[i]      = v;
+            to[i]        = w;
+            weight[i]    = links.latency(id);
+            bandwidth[i] = links.bandwidth(id);
+            link[i]      = id;
+            position[d]  = i;
+        }
+        for (int id = 0; id < n; id++) {
+            twin[position[2*id]]   = position[2*id+1];
+            twin[position[2*id+1]] = position[2*id];
+        }
+    }
+
+    /**
+     * Initializes a digraph from arrays already laid out in compressed sparse
+     * row form over {@code links}; the arrays are used as is, not copied.
+     */
+    CSRDigraph(EdgeTable links, int[] offset, int[] from, int[] to, double[] weight,
+               int[] bandwidth, int[] twin, int[] link) {
+        this.links = links;
+        this.V = offset.length - 1;
+        this.E = to.length;
+        this.offset = offset;
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+        this.bandwidth = bandwidth;
+        this.twin = twin;
+        this.link = link;
+    }
+
+    /**
+     * Returns the number of vertices in this digraph.
+     *
+     * @return the number of vertices in this digraph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of directed edges in this digraph. Every link of an
+     * undirected topology counts twice, once in each direction.
+     *
+     * @return the number of directed edges in this digraph
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the number of the first edge incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of the first edge incident from vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int begin(int v) {
+        validateVertex(v);
+        return offset[v];
+    }
+
+    /**
+     * Returns one more than the number of the last edge incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return one more than the number of the last edge incident from vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int end(int v) {
+        validateVertex(v);
+        return offset[v+1];
+    }
+
+    /**
+     * Returns the number of directed edges incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the outdegree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offset[v+1] - offset[v];
+    }
+
+    /**
+     * Returns the source vertex of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the source vertex of edge {@code e}
+     */
+    public int from(int e) {
+        return from[e];
+    }
+
+    /**
+     * Returns the target vertex of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the target vertex of edge {@code e}
+     */
+    public int to(int e) {
+        return to[e];
+    }
+
+    /**
+     * Returns the weight (latency) of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the weight of edge {@code e}
+     */
+    public double weight(int e) {
+        return weight[e];
+    }
+
+    /**
+     * Returns the bandwidth of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the bandwidth of edge {@code e}
+     */
+    public int bandwidth(int e) {
+        return bandwidth[e];
+    }
+
+    /**
+     * Returns the edge running in the opposite direction over the same link
+     * as edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the opposite edge of {@code e}, or -1 if {@code e} has none
+     */
+    public int twin(int e) {
+        return twin[e];
+    }
+
+    /**
+     * Returns the edge id, in the {@link EdgeTable} of the original digraph,
+     * of the link that edge {@code e} runs over.
+     *
+     * @param  e the edge number
+     * @return the edge id of the link under edge {@code e}
+     */
+    public int link(int e) {
+        return link[e];
+    }
+
+    /**
+     * Returns an {@link Edge} view of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return an {@code Edge} view of edge {@code e}, directed from {@code from(e)} to {@code to(e)}
+     */
+    public Edge edge(int e) {
+        return new Edge(links, link[e], from[e], to[e]);
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns a string representation of this digraph.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of edges <em>E</em>,
+     *         followed by the <em>V</em> adjacency ranges
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + E + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (int e = offset[v]; e < offset[v+1]; e++) {
+                s.append(String.format("%d-%d %.9f  ", v, to[e], weight[e]));
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Unit tests the {@code CSRDigraph} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        StdOut.println(new CSRDigraph(G));
+    }
+
+}
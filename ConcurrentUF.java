@@ -0,0 +1,168 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentUF.java
+ *  Execution:    java ConcurrentUF < input.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *
+ *  Lock-free union-find for many threads at once: quick union with
+ *  randomized linking and path compression by halving, with every write
+ *  done by compare-and-set.
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code ConcurrentUF} class represents a <em>union–find data type</em>
+ *  with the same API as {@link UF} that any number of threads may use at
+ *  the same time without locking. Its {@code union()} also reports whether
+ *  it merged two components, so that exactly one of several threads racing
+ *  to join the same two components learns that it did.
+ *  <p>
+ *  The parent links live in an {@link AtomicIntegerArray}. A union links
+ *  one root under the other with a compare-and-set on the root's own entry,
+ *  and retries from the new roots if another thread got there first.
+ *  Ranks cannot be kept consistent that way, so roots are linked by a fixed
+ *  pseudo-random priority instead: the root whose scrambled index is lower
+ *  goes under the other. That keeps the trees of logarithmic expected
+ *  height however the sites are numbered. {@code find()} halves the path
+ *  with compare-and-set as well; a lost race only means a link is not
+ *  shortened.
+ *  <p>
+ *  Every operation is linearizable. Initializing a data structure with
+ *  <em>n</em> sites takes linear time; {@code union}, {@code find} and
+ *  {@code connected} take logarithmic expected time, plus retries under
+ *  contention, and {@code count} takes constant time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class ConcurrentUF {
+    private final AtomicIntegerArray parent;   // parent[i] = parent of i
+    private final AtomicInteger count;         // number of components
+
+    /**
+     * Initializes an empty union–find data structure with {@code n} sites
+     * {@code 0} through {@code n-1}. Each site is initially in its own
+     * component.
+     *
+     * @param  n the number of sites
+     * @throws IllegalArgumentException if {@code n < 0}
+     */
+    public ConcurrentUF(int n) {
+        if (n < 0) throw new IllegalArgumentException();
+        count = new AtomicInteger(n);
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++)
+            parent.set(i, i);
+    }
+
+    /**
+     * Returns the component identifier for the component containing site {@code p}.
+     * Another thread's union may change it as soon as it is returned.
+     *
+     * @param  p the integer representing one site
+     * @return the component identifier for the component containing site {@code p}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= p < n}
+     */
+    public int find(int p) {
+        validate(p);
+        while (true) {
+            int q = parent.get(p);
+            if (q == p) return p;
+            int r = parent.get(q);
+            if (q != r) parent.compareAndSet(p, q, r);    // path compression by halving
+            p = r;
+        }
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return the number of components (between {@code 1} and {@code n})
+     */
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * Returns true if the the two sites are in the same component.
+     *
+     * @param  p the integer representing one site
+     * @param  q the integer representing the other site
+     * @return {@code true} if the two sites {@code p} and {@code q} are in the same component;
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean connected(int p, int q) {
+        while (true) {
+            int rootP = find(p), rootQ = find(q);
+            if (rootP == rootQ) return true;
+
+            // rootP may have been linked under another root in the meantime
+            if (parent.get(rootP) == rootP) return false;
+        }
+    }
+
+    /**
+     * Merges the component containing site {@code p} with the
+     * the component containing site {@code q}.
+     *
+     * @param  p the integer representing one site
+     * @param  q the integer representing the other site
+     * @return {@code true} if this call merged two components;
+     *         {@code false} if the sites were already in the same component
+     * @throws IndexOutOfBoundsException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean union(int p, int q) {
+        while (true) {
+            int rootP = find(p), rootQ = find(q);
+            if (rootP == rootQ) return false;
+
+            // make the root of lower priority point to the other
+            if (priority(rootP) > priority(rootQ)) {
+                int swap = rootP;
+                rootP = rootQ;
+                rootQ = swap;
+            }
+            if (parent.compareAndSet(rootP, rootP, rootQ)) {
+                count.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    // a fixed scrambling of the sites: distinct for distinct sites, unrelated to their order
+    private static int priority(int p) {
+        return p * 0x9E3779B9;
+    }
+
+    // validate that p is a valid index
+    private void validate(int p) {
+        int n = parent.length();
+        if (p < 0 || p >= n) {
+            throw new IndexOutOfBoundsException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+
+    /**
+     * Reads in a an integer {@code n} and a sequence of pairs of integers
+     * (between {@code 0} and {@code n-1}) from standard input, where each integer
+     * in the pair represents some site;
+     * if the sites are in different components, merge the two components
+     * and print the pair to standard output.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int n = StdIn.readInt();
+        ConcurrentUF uf = new ConcurrentUF(n);
+        while (!StdIn.isEmpty()) {
+            int p = StdIn.readInt();
+            int q = StdIn.readInt();
+            if (uf.union(p, q)) StdOut.println(p + " " + q);
+        }
+        StdOut.println(uf.count() + " components");
+    }
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac DijkstraSP.java
  *  Execution:    java DijkstraSP input.txt s
- *  Dependencies: EdgeWeightedDigraph.java IndexMinPQ.java Stack.java Edge.java
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java DoubleIndexMinPQ.java Stack.java Edge.java
  *  Data files:   http://algs4.cs.princeton.edu/44sp/tinyEWD.txt
  *                http://algs4.cs.princeton.edu/44sp/mediumEWD.txt
  *                http://algs4.cs.princeton.edu/44sp/largeEWD.txt
@@ -35,13 +35,21 @@
  *  single-source shortest paths problem in edge-weighted digraphs
  *  where the edge weights are nonnegative.
  *  <p>
- *  This implementation uses Dijkstra's algorithm with a binary heap.
+ *  This implementation uses Dijkstra's algorithm with a 4-ary heap of
+ *  primitive keys, {@link DoubleIndexMinPQ}, scanning the adjacency ranges
+ *  of a {@link IndexedDigraph} by edge number.
  *  The constructor takes time proportional to <em>E</em> log <em>V</em>,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
  *  Afterwards, the {@code distTo()} and {@code hasPathTo()} methods take
  *  constant time and the {@code pathTo()} method takes time proportional to the
  *  number of edges in the shortest path returned.
  *  <p>
+ *  Given a target vertex {@code t} as well, the search stops as soon as
+ *  {@code t} is settled, having visited only the vertices closer to
+ *  {@code s} than {@code t}; the path to {@code t} is the one the full search
+ *  would find. For many queries on one topology, see
+ *  {@link BidirectionalDijkstra}.
+ *  <p>
  *  For additional documentation,    
  *  see <a href="http://algs4.cs.princeton.edu/44sp">Section 4.4</a> of    
  *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne. 
@@ -51,8 +59,9 @@
  */
 public class DijkstraSP {
     private double[] distTo;          // distTo[v] = distance  of shortest s->v path
-    private Edge[] edgeTo;    // edgeTo[v] = last edge on shortest s->v path
-    private IndexMinPQ<Double> pq;    // priority queue of vertices
+    private int[] edgeTo;             // edgeTo[v] = number of last edge on shortest s->v path
+    private DoubleIndexMinPQ pq;      // priority queue of vertices
+    private final IndexedDigraph G;       // the digraph, for turning edge numbers back into edges
 
     /**
      * Computes a shortest-paths tree from the source vertex {@code s} to every other
@@ -64,34 +73,89 @@ public class DijkstraSP {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public DijkstraSP(EdgeWeightedDigraph G, int s) {
-        
+        this(G.freeze(), s);
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-numbered digraph {@code G}.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DijkstraSP(IndexedDigraph G, int s) {
+        this.G = G;
+        search(s, -1);
+
+        // check optimality conditions
+        assert check(G, s);
+    }
+
+    /**
+     * Computes a shortest path from the source vertex {@code s} to the target
+     * vertex {@code t} in the edge-weighted digraph {@code G}, stopping as
+     * soon as the distance to {@code t} is known.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     */
+    public DijkstraSP(EdgeWeightedDigraph G, int s, int t) {
+        this(G.freeze(), s, t);
+    }
+
+    /**
+     * Computes a shortest path from the source vertex {@code s} to the target
+     * vertex {@code t} in the edge-numbered digraph {@code G}, stopping as
+     * soon as the distance to {@code t} is known. Afterwards, the distances
+     * and paths to {@code t} and to every vertex closer to {@code s} are
+     * final; those to other vertices are only upper bounds.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     */
+    public DijkstraSP(IndexedDigraph G, int s, int t) {
+        this.G = G;
+        if (t < 0 || t >= G.V())
+            throw new IllegalArgumentException("vertex " + t + " is not between 0 and " + (G.V()-1));
+        search(s, t);
+    }
+
+    // relax vertices in order of distance from s, until t (if not -1) is settled
+    private void search(int s, int t) {
         distTo = new double[G.V()];
-        edgeTo = new Edge[G.V()];
+        edgeTo = new int[G.V()];
 
         validateVertex(s);
 
-        for (int v = 0; v < G.V(); v++)
+        for (int v = 0; v < G.V(); v++) {
             distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+        }
         distTo[s] = 0.0;
 
-        // relax vertices in order of distance from s
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new DoubleIndexMinPQ(G.V());
         pq.insert(s, distTo[s]);
         while (!pq.isEmpty()) {
             int v = pq.delMin();
-            for (Edge e : G.adj(v))
-                relax(e);
+            if (v == t) break;
+            for (int e = G.begin(v); e < G.end(v); e++)
+                if (G.hasEdge(e)) relax(e);
         }
-
-        // check optimality conditions
-        assert check(G, s);
     }
 
     // relax edge e and update pq if changed
-    private void relax(Edge e) {
-        int v = e.from(), w = e.to();
-        if (distTo[w] > distTo[v] + e.weight()) {
-            distTo[w] = distTo[v] + e.weight();
+    private void relax(int e) {
+        int v = G.from(e), w = G.to(e);
+        if (distTo[w] > distTo[v] + G.weight(e)) {
+            distTo[w] = distTo[v] + G.weight(e);
             edgeTo[w] = e;
             if (pq.contains(w)) pq.decreaseKey(w, distTo[w]);
             else                pq.insert(w, distTo[w]);
@@ -135,8 +199,8 @@ public class DijkstraSP {
         validateVertex(v);
         if (!hasPathTo(v)) return null;
         Stack<Edge> path = new Stack<Edge>();
-        for (Edge e = edgeTo[v]; e != null; e = edgeTo[e.from()]) {
-            path.push(e);
+        for (int e = edgeTo[v]; e != -1; e = edgeTo[G.from(e)]) {
+            path.push(G.edge(e));
         }
         return path;
     }
@@ -145,24 +209,24 @@ public class DijkstraSP {
     // check optimality conditions:
     // (i) for all edges e:            distTo[e.to()] <= distTo[e.from()] + e.weight()
     // (ii) for all edge e on the SPT: distTo[e.to()] == distTo[e.from()] + e.weight()
-    private boolean check(EdgeWeightedDigraph G, int s) {
+    private boolean check(IndexedDigraph G, int s) {
 
         // check that edge weights are nonnegative
-        for (Edge e : G.edges()) {
-            if (e.weight() < 0) {
+        for (int e = 0; e < G.E(); e++) {
+            if (G.hasEdge(e) && G.weight(e) < 0) {
                 System.err.println("negative edge weight detected");
                 return false;
             }
         }
 
         // check that distTo[v] and edgeTo[v] are consistent
-        if (distTo[s] != 0.0 || edgeTo[s] != null) {
+        if (distTo[s] != 0.0 || edgeTo[s] != -1) {
             System.err.println("distTo[s] and edgeTo[s] inconsistent");
             return false;
         }
         for (int v = 0; v < G.V(); v++) {
             if (v == s) continue;
-            if (edgeTo[v] == null && distTo[v] != Double.POSITIVE_INFINITY) {
+            if (edgeTo[v] == -1 && distTo[v] != Double.POSITIVE_INFINITY) {
                 System.err.println("distTo[] and edgeTo[] inconsistent");
                 return false;
             }
@@ -170,10 +234,11 @@ public class DijkstraSP {
 
         // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
         for (int v = 0; v < G.V(); v++) {
-            for (Edge e : G.adj(v)) {
-                int w = e.to();
-                if (distTo[v] + e.weight() < distTo[w]) {
-                    System.err.println("edge " + e + " not relaxed");
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                if (!G.hasEdge(e)) continue;
+                int w = G.to(e);
+                if (distTo[v] + G.weight(e) < distTo[w]) {
+                    System.err.println("edge " + G.edge(e) + " not relaxed");
                     return false;
                 }
             }
@@ -181,12 +246,12 @@ public class DijkstraSP {
 
         // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
         for (int w = 0; w < G.V(); w++) {
-            if (edgeTo[w] == null) continue;
-            Edge e = edgeTo[w];
-            int v = e.from();
-            if (w != e.to()) return false;
-            if (distTo[v] + e.weight() != distTo[w]) {
-                System.err.println("edge " + e + " on shortest path not tight");
+            if (edgeTo[w] == -1) continue;
+            int e = edgeTo[w];
+            int v = G.from(e);
+            if (w != G.to(e)) return false;
+            if (distTo[v] + G.weight(e) != distTo[w]) {
+                System.err.println("edge " + G.edge(e) + " on shortest path not tight");
                 return false;
             }
         }
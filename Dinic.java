@@ -0,0 +1,338 @@
+/******************************************************************************
+ *  Compilation:  javac Dinic.java
+ *  Execution:    java Dinic topology.txt s t
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java CSRDigraph.java
+ *                In.java StdOut.java
+ *
+ *  Dinic's algorithm for computing a max flow and a min cut: blocking
+ *  flows in level graphs, found with current-arc pointers.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code Dinic} class represents a data type for computing a
+ *  <em>maximum st-flow</em> and <em>minimum st-cut</em> in a flow
+ *  network. It answers the same questions as {@link FordFulkerson}.
+ *  <p>
+ *  This implementation uses <em>Dinic's</em> algorithm. Each phase runs a
+ *  breadth-first search from the source to number the vertices by distance
+ *  in the residual network. It then pushes a blocking flow along edges that
+ *  go exactly one level deeper. A current-arc pointer per vertex means no
+ *  edge is tried twice within a phase after it has become useless. The
+ *  distance to the sink grows every phase, so there are at most
+ *  <em>V</em> phases, and the constructor takes time proportional to
+ *  <em>V</em><sup>2</sup> <em>E</em> in the worst case. In practice it is
+ *  much faster than that, and much faster than {@code FordFulkerson},
+ *  which searches again from the source after every single augmenting path.
+ *  Afterwards, the {@code inCut()} and {@code value()} methods take
+ *  constant time.
+ *  <p>
+ *  The flow, levels, pointers and search stacks are primitive arrays
+ *  allocated once per object, and a phase only resets the entries of the
+ *  vertices the previous search reached; the network itself is only read, and
+ *  the twin of each edge serves as its residual edge. The computation can be
+ *  resumed from its own flow after a change, as {@link IncrementalMaxFlow} does. The depth-first
+ *  search keeps an explicit path, so long paths do not overflow the stack.
+ *
+ *  @author Daniel O'Neill
+ */
+public class Dinic {
+    private final int V;          // number of vertices
+    private final int[] level;    // level[v] = distance from s in the last residual graph, or -1
+    private final int[] flow;     // flow[e] = flow on edge e; the twin of e carries -flow[e]
+    private final int[] queue;    // vertices in order of level
+    private final int[] current;  // next edge of v to try in this phase
+    private final int[] path;     // edges of the path being extended from s
+    private int value;            // value of max flow
+    private int reached;          // vertices queue[0 .. reached-1] have a level
+
+    /**
+     * Compute a maximum flow and minimum cut in the network {@code G}
+     * from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     */
+    public Dinic(EdgeWeightedDigraph G, int s, int t) {
+        this(G.freeze(), s, t);
+    }
+
+    /**
+     * Compute a maximum flow and minimum cut in the edge-numbered
+     * network {@code G} from vertex {@code s} to vertex {@code t}.
+     * The twin of each edge serves as its residual edge, so a link of
+     * bandwidth <em>c</em> can carry up to <em>c</em> in either direction.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     */
+    public Dinic(IndexedDigraph G, int s, int t) {
+        this(G, s, t, new int[G.E()]);
+    }
+
+    /**
+     * Compute a maximum flow and minimum cut in the edge-numbered
+     * network {@code G} from vertex {@code s} to vertex {@code t}, starting
+     * from a feasible flow instead of from zero. The flow is augmented in
+     * place, so after a small change to the network the previous answer
+     * can be carried over and only the difference is searched for.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @param  flow a feasible st-flow indexed by edge number, skew symmetric
+     *         over twins; it becomes the maximum flow
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     * @throws IllegalArgumentException if {@code flow.length != E}
+     */
+    public Dinic(IndexedDigraph G, int s, int t, int[] flow) {
+        V = G.V();
+        validate(s);
+        validate(t);
+        if (s == t) throw new IllegalArgumentException("Source equals sink");
+        if (flow.length != G.E()) throw new IllegalArgumentException("flow must have one entry per edge");
+        this.flow = flow;
+        level = new int[V];
+        queue = new int[V];
+        current = new int[V];
+        path = new int[V];
+        Arrays.fill(level, -1);
+
+        value = inflow(G, t);
+        maximize(G, s, t);
+
+        // check optimality conditions
+        assert check(G, s, t);
+    }
+
+    /**
+     * Brings the flow back up to a maximum after the caller has changed the
+     * bandwidths of the network, or the flow array given to the constructor,
+     * keeping the flow feasible. The arrays of this object are reused and
+     * the caller supplies the value, so nothing is allocated and the flow is
+     * not recounted; the cost is that of the phases the change needs, and
+     * at least one breadth-first search from {@code s}.
+     *
+     * @param  G the changed flow network, with the same edge numbering
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @param  value the value of the flow as it stands now
+     */
+    void resume(IndexedDigraph G, int s, int t, int value) {
+        this.value = value;
+        maximize(G, s, t);
+        assert check(G, s, t);
+    }
+
+    // augment by blocking flows in level graphs until t is out of reach
+    private void maximize(IndexedDigraph G, int s, int t) {
+        while (buildLevels(G, s, t)) {
+            for (int i = 0; i < reached; i++)
+                current[queue[i]] = G.begin(queue[i]);
+
+            // blocking flow: extend a path from s along level edges until it reaches t
+            int depth = 0, v = s;
+            while (true) {
+                if (v == t) {
+                    int bottle = Integer.MAX_VALUE;
+                    for (int i = 0; i < depth; i++)
+                        bottle = Math.min(bottle, residualCapacity(G, path[i]));
+                    int retreat = -1;
+                    for (int i = 0; i < depth; i++) {
+                        int e = path[i];
+                        flow[e] += bottle;
+                        if (G.twin(e) != -1) flow[G.twin(e)] -= bottle;
+                        if (retreat == -1 && residualCapacity(G, e) == 0) retreat = i;
+                    }
+                    value += bottle;
+
+                    // back up to the tail of the first edge saturated
+                    depth = retreat;
+                    v = G.from(path[retreat]);
+                    continue;
+                }
+                int end = G.end(v);
+                while (current[v] < end) {
+                    int e = current[v];
+                    if (G.hasEdge(e) && level[G.to(e)] == level[v] + 1 && residualCapacity(G, e) > 0) break;
+                    current[v]++;
+                }
+                if (current[v] < end) {
+                    path[depth++] = current[v];
+                    v = G.to(current[v]);
+                }
+
+                // dead end: nothing more gets through v in this phase
+                else if (v == s) break;
+                else {
+                    level[v] = -1;
+                    v = G.from(path[--depth]);
+                    current[v]++;
+                }
+            }
+        }
+    }
+
+    // number the vertices by distance from s in the residual graph, up to t's level; is t reachable?
+    // only the vertices the last search reached need their level cleared
+    private boolean buildLevels(IndexedDigraph G, int s, int t) {
+        for (int i = 0; i < reached; i++)
+            level[queue[i]] = -1;
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        level[s] = 0;
+        while (head < tail) {
+            int v = queue[head++];
+
+            // vertices at t's level or deeper are never on a shortest path to t
+            if (level[t] != -1 && level[v] >= level[t]) break;
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.to(e);
+                if (level[w] == -1 && G.hasEdge(e) && residualCapacity(G, e) > 0) {
+                    level[w] = level[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        reached = tail;
+        return level[t] != -1;
+    }
+
+    // net flow into vertex t; only the positive half of each twin pair is counted
+    private int inflow(IndexedDigraph G, int t) {
+        int inflow = 0;
+        for (int e = 0; e < G.E(); e++) {
+            if (flow[e] <= 0) continue;
+            if (G.to(e) == t)   inflow += flow[e];
+            if (G.from(e) == t) inflow -= flow[e];
+        }
+        return inflow;
+    }
+
+    // residual capacity of edge e
+    private int residualCapacity(IndexedDigraph G, int e) {
+        return G.bandwidth(e) - flow[e];
+    }
+
+    /**
+     * Returns the value of the maximum flow.
+     *
+     * @return the value of the maximum flow
+     */
+    public int value()  {
+        return value;
+    }
+
+    /**
+     * Returns the flow this max flow sends along edge {@code e} of the network.
+     * The flow along the twin of {@code e} is the negation of this value.
+     *
+     * @param  e the edge number
+     * @return the flow along edge {@code e}; negative if the flow over its
+     *         link runs the other way
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public int flow(int e)  {
+        if (e < 0 || e >= flow.length)
+            throw new IllegalArgumentException("edge " + e + " is not between 0 and " + (flow.length-1));
+        return flow[e];
+    }
+
+    /**
+     * Returns true if the specified vertex is on the {@code s} side of the mincut.
+     *
+     * @param  v vertex
+     * @return {@code true} if vertex {@code v} is on the {@code s} side of the mincut;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean inCut(int v)  {
+        validate(v);
+        return level[v] != -1;
+    }
+
+    // throw an IllegalArgumentException if v is outside prescibed range
+    private void validate(int v)  {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // check that the flow is feasible and that its value equals the capacity of the cut
+    private boolean check(IndexedDigraph G, int s, int t) {
+        int[] net = new int[V];
+        for (int e = 0; e < G.E(); e++) {
+            if (flow[e] > G.bandwidth(e) || (flow[e] != 0 && !G.hasEdge(e))) {
+                System.err.println("Edge does not satisfy capacity constraints: " + G.edge(e));
+                return false;
+            }
+            if (G.twin(e) == -1 ? flow[e] < 0 : flow[e] != -flow[G.twin(e)]) {
+                System.err.println("Edge flow is not skew symmetric: " + G.edge(e));
+                return false;
+            }
+            if (flow[e] > 0) {
+                net[G.from(e)] -= flow[e];
+                net[G.to(e)] += flow[e];
+            }
+        }
+        for (int v = 0; v < V; v++) {
+            int expected = v == s ? -value : v == t ? value : 0;
+            if (net[v] != expected) {
+                System.err.println("Net flow into " + v + " is " + net[v] + ", expected " + expected);
+                return false;
+            }
+        }
+        if (!inCut(s) || inCut(t)) {
+            System.err.println("source and sink are not separated by the min cut");
+            return false;
+        }
+        int mincutValue = 0;
+        for (int e = 0; e < G.E(); e++)
+            if (G.hasEdge(e) && inCut(G.from(e)) && !inCut(G.to(e)))
+                mincutValue += G.bandwidth(e);
+        if (mincutValue != value) {
+            System.err.println("Max flow value = " + value + ", min cut value = " + mincutValue);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code Dinic} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CSRDigraph G = new EdgeWeightedDigraph(in).freeze();
+        int s = Integer.parseInt(args[1]), t = Integer.parseInt(args[2]);
+
+        // compute maximum flow and minimum cut
+        Dinic maxflow = new Dinic(G, s, t);
+        StdOut.println("Max flow from " + s + " to " + t);
+        for (int e = 0; e < G.E(); e++) {
+            if (maxflow.flow(e) > 0)
+                StdOut.println("   " + G.from(e) + "->" + G.to(e) + " " + maxflow.flow(e) + "/" + G.bandwidth(e));
+        }
+
+        // print min-cut
+        StdOut.print("Min cut: ");
+        for (int v = 0; v < G.V(); v++) {
+            if (maxflow.inCut(v)) StdOut.print(v + " ");
+        }
+        StdOut.println();
+
+        StdOut.println("Max flow value = " +  maxflow.value());
+    }
+}
@@ -0,0 +1,298 @@
+/******************************************************************************
+ *  Compilation:  javac DoubleIndexMinPQ.java
+ *  Execution:    java DoubleIndexMinPQ
+ *  Dependencies: StdOut.java
+ *
+ *  Minimum-oriented indexed PQ of primitive double keys, using a 4-ary heap.
+ *
+ ******************************************************************************/
+
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code DoubleIndexMinPQ} class represents an indexed priority queue of
+ *  {@code double} keys. It has the API of {@link IndexMinPQ} for
+ *  {@code IndexMinPQ<Double>}, without the iterator, but stores its keys as
+ *  primitives: nothing is boxed on insert or change of key, and comparing two
+ *  keys is one machine comparison instead of a call to {@code compareTo()}.
+ *  <p>
+ *  This implementation uses a 4-ary heap, 0-based, whose keys are kept in an
+ *  array parallel to the heap, so the four children of a node sit side by
+ *  side in one cache line. A 4-ary heap is half as deep as a binary heap, so
+ *  <em>insert</em> and <em>decrease-key</em>, the operations Dijkstra's and
+ *  Prim's algorithms make most, touch half as many levels, and
+ *  <em>delete-the-minimum</em> makes fewer, cheaper cache misses for
+ *  its extra comparisons. Keys move down a hole instead of being swapped.
+ *  <p>
+ *  The <em>insert</em>, <em>delete-the-minimum</em>, <em>delete</em>,
+ *  <em>change-key</em>, <em>decrease-key</em>, and <em>increase-key</em>
+ *  operations take logarithmic time.
+ *  The <em>is-empty</em>, <em>size</em>, <em>min-index</em>, <em>min-key</em>,
+ *  and <em>key-of</em> operations take constant time.
+ *  Construction takes time proportional to the specified capacity.
+ *
+ *  @author Daniel O'Neill
+ */
+public class DoubleIndexMinPQ {
+    private final int maxN;     // maximum number of elements on PQ
+    private int n;              // number of elements on PQ
+    private final int[] pq;     // 4-ary heap using 0-based indexing: the children of k are 4k+1 to 4k+4
+    private final int[] qp;     // inverse of pq - qp[pq[k]] = k, or -1 if i is not on the PQ
+    private final double[] key; // key[k] = priority of pq[k]
+
+    /**
+     * Initializes an empty indexed priority queue with indices between {@code 0}
+     * and {@code maxN - 1}.
+     * @param  maxN the keys on this priority queue are index from {@code 0}
+     *         {@code maxN - 1}
+     * @throws IllegalArgumentException if {@code maxN < 0}
+     */
+    public DoubleIndexMinPQ(int maxN) {
+        if (maxN < 0) throw new IllegalArgumentException();
+        this.maxN = maxN;
+        pq  = new int[maxN];
+        qp  = new int[maxN];
+        key = new double[maxN];
+        for (int i = 0; i < maxN; i++)
+            qp[i] = -1;
+    }
+
+    /**
+     * Returns true if this priority queue is empty.
+     *
+     * @return {@code true} if this priority queue is empty;
+     *         {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Is {@code i} an index on this priority queue?
+     *
+     * @param  i an index
+     * @return {@code true} if {@code i} is an index on this priority queue;
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     */
+    public boolean contains(int i) {
+        validateIndex(i);
+        return qp[i] != -1;
+    }
+
+    /**
+     * Returns the number of keys on this priority queue.
+     *
+     * @return the number of keys on this priority queue
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Associates key with index {@code i}.
+     *
+     * @param  i an index
+     * @param  key the key to associate with index {@code i}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if there already is an item associated
+     *         with index {@code i}
+     */
+    public void insert(int i, double key) {
+        if (contains(i)) throw new IllegalArgumentException("index is already in the priority queue");
+        swim(n++, i, key);
+    }
+
+    /**
+     * Returns an index associated with a minimum key.
+     *
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int minIndex() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return pq[0];
+    }
+
+    /**
+     * Returns a minimum key.
+     *
+     * @return a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public double minKey() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return key[0];
+    }
+
+    /**
+     * Removes a minimum key and returns its associated index.
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int delMin() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        int min = pq[0];
+        qp[min] = -1;
+        if (--n > 0) sink(0, pq[n], key[n]);
+        return min;
+    }
+
+    /**
+     * Returns the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to return
+     * @return the key associated with index {@code i}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public double keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        return key[qp[i]];
+    }
+
+    /**
+     * Change the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to change
+     * @param  key change the key associated with index {@code i} to this key
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void changeKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (key < this.key[qp[i]]) swim(qp[i], i, key);
+        else                       sink(qp[i], i, key);
+    }
+
+    /**
+     * Decrease the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to decrease
+     * @param  key decrease the key associated with index {@code i} to this key
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key >= keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void decreaseKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (this.key[qp[i]] <= key)
+            throw new IllegalArgumentException("Calling decreaseKey() with given argument would not strictly decrease the key");
+        swim(qp[i], i, key);
+    }
+
+    /**
+     * Increase the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to increase
+     * @param  key increase the key associated with index {@code i} to this key
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key <= keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void increaseKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (this.key[qp[i]] >= key)
+            throw new IllegalArgumentException("Calling increaseKey() with given argument would not strictly increase the key");
+        sink(qp[i], i, key);
+    }
+
+    /**
+     * Remove the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to remove
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void delete(int i) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        int k = qp[i];
+        qp[i] = -1;
+        if (k == --n) return;
+
+        // the last entry fills the hole, moving whichever way its key calls for
+        int last = pq[n];
+        double lastKey = key[n];
+        if (k > 0 && lastKey < key[(k-1) >>> 2]) swim(k, last, lastKey);
+        else                                     sink(k, last, lastKey);
+    }
+
+    /**
+     * Removes every key from this priority queue, in time proportional to
+     * their number rather than to the capacity.
+     */
+    public void clear() {
+        for (int k = 0; k < n; k++)
+            qp[pq[k]] = -1;
+        n = 0;
+    }
+
+    private void validateIndex(int i) {
+        if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException();
+    }
+
+
+   /***************************************************************************
+    * Heap helper functions: each moves a hole from position k, then puts
+    * index i with key x into it.
+    ***************************************************************************/
+    private void swim(int k, int i, double x) {
+        while (k > 0) {
+            int parent = (k-1) >>> 2;
+            if (key[parent] <= x) break;
+            pq[k] = pq[parent];
+            key[k] = key[parent];
+            qp[pq[k]] = k;
+            k = parent;
+        }
+        pq[k] = i;
+        key[k] = x;
+        qp[i] = k;
+    }
+
+    private void sink(int k, int i, double x) {
+        while (true) {
+            int child = 4*k + 1;
+            if (child >= n) break;
+            int last = Math.min(child + 4, n);
+            int min = child;
+            for (int j = child + 1; j < last; j++)
+                if (key[j] < key[min]) min = j;
+            if (x <= key[min]) break;
+            pq[k] = pq[min];
+            key[k] = key[min];
+            qp[pq[k]] = k;
+            k = min;
+        }
+        pq[k] = i;
+        key[k] = x;
+        qp[i] = k;
+    }
+
+
+    /**
+     * Unit tests the {@code DoubleIndexMinPQ} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        double[] keys = { 0.5, 0.25, 0.75, 0.125, 0.5, 1.0, 0.0625, 0.875, 0.375, 0.625 };
+
+        DoubleIndexMinPQ pq = new DoubleIndexMinPQ(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            pq.insert(i, keys[i]);
+        }
+
+        // move two keys, remove one
+        pq.decreaseKey(7, 0.0);
+        pq.increaseKey(6, 2.0);
+        pq.delete(3);
+
+        // delete and print each key
+        while (!pq.isEmpty()) {
+            double key = pq.minKey();
+            int i = pq.delMin();
+            StdOut.println(i + " " + key);
+        }
+    }
+}
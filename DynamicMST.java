@@ -0,0 +1,625 @@
+/******************************************************************************
+ *  Compilation:  javac DynamicMST.java
+ *  Execution:    java DynamicMST topology.txt < changes.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java KruskalMST.java
+ *                UF.java Queue.java In.java StdIn.java StdOut.java
+ *
+ *  Keeps a minimum spanning forest up to date while links are added,
+ *  removed and re-weighted. Each line of input is one change:
+ *
+ *      add v w latency      a new link from v to w; its id is printed
+ *      remove id            removes link id
+ *      weight id latency    changes the latency of link id
+ *
+ *  and the weight of the forest is printed after it.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code DynamicMST} class maintains a <em>minimum spanning forest</em>
+ *  of an undirected graph whose links change one at a time, without
+ *  rebuilding it after each change. Links are named by id: the links of the
+ *  initial graph keep the ids of its {@link EdgeTable}, and links added later
+ *  are numbered after them. Ties between equal latencies are broken by link
+ *  id, so the forest is always the one {@link KruskalMST} would compute with
+ *  the same tie-break.
+ *  <p>
+ *  The forest is kept in a <em>link-cut tree</em> in which every tree link
+ *  is a node of its own between its two endpoints, so that the heaviest link
+ *  on the tree path between any two vertices is found by exposing the path.
+ *  A new link, or a non-tree link made lighter, either joins two trees or
+ *  replaces the heaviest link on the cycle it closes, if it is lighter than
+ *  that link. Making a tree link lighter or a non-tree link heavier changes
+ *  nothing but the weight.
+ *  <p>
+ *  Removing a tree link, or making one heavier, splits its tree in two, and
+ *  the lightest link across the split takes its place. The split is found by
+ *  walking both halves over tree links in step and stopping as soon as one of
+ *  them is exhausted, so only the smaller half and its links are ever scanned.
+ *  <p>
+ *  Adding a link, and every change that does not split a tree, takes
+ *  amortized time proportional to log <em>V</em>. A split takes time
+ *  proportional to log <em>V</em> plus the number of vertices and links in
+ *  the smaller half. That is small when a link near the edge of the network
+ *  fails, but when a backbone link splits the network into two halves of
+ *  similar size it is proportional to <em>V</em> + <em>E</em> in the worst
+ *  case, the same order as a rebuild.
+ *  <p>
+ *  This class therefore does <em>not</em> guarantee polylogarithmic time
+ *  per update. Removing a tree link, or making one heavier, can cost as
+ *  much as a rebuild. Bounding those changes too would need the levelled
+ *  replacement search of Holm, de Lichtenberg and Thorup, with an
+ *  Euler-tour tree per level, and that is not implemented here.
+ *  The {@code weight()} and {@code inTree()} methods take constant time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class DynamicMST {
+    private final int V;
+    private int links;               // links are numbered 0 through links-1
+    private int[] from, to;          // endpoints of link id
+    private boolean[] present;       // is link id in the graph?
+    private boolean[] inTree;        // is link id in the forest?
+    private int[] fromPos, toPos;    // position of link id in adj[from[id]] and adj[to[id]]
+    private int[][] adj;             // adj[v][0..degree[v]) = ids of the links at v
+    private int[] degree;
+    private double weight;           // weight of the forest
+
+    // the link-cut tree: node v < V is vertex v, node V + id is link id
+    private int[] left, right, parent;
+    private boolean[] flip;          // are the children of this node's subtree reversed?
+    private double[] key;            // latency of a link node; -infinity for a vertex
+    private int[] heaviest;          // heaviest node in this node's splay subtree
+    private int[] stack;
+
+    // for splitting a tree: the vertices of each half, marked with epoch or epoch + 1
+    private final int[] mark;
+    private final int[] half, otherHalf;
+    private int epoch;
+
+    /**
+     * Computes a minimum spanning forest of an edge-weighted graph.
+     *
+     * @param G the edge-weighted graph
+     */
+    public DynamicMST(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Computes a minimum spanning forest of an edge-numbered graph. Links
+     * hidden by {@code G} are not in the graph, but their ids are reserved.
+     *
+     * @param G the edge-weighted graph
+     */
+    public DynamicMST(IndexedDigraph G) {
+        V = G.V();
+        for (int e = 0; e < G.E(); e++)
+            links = Math.max(links, G.link(e) + 1);
+        from = new int[links];
+        to = new int[links];
+        present = new boolean[links];
+        inTree = new boolean[links];
+        fromPos = new int[links];
+        toPos = new int[links];
+        adj = new int[V][];
+        degree = new int[V];
+        for (int v = 0; v < V; v++)
+            adj[v] = new int[Math.max(1, G.outdegree(v))];
+        int nodes = V + links;
+        left = new int[nodes];
+        right = new int[nodes];
+        parent = new int[nodes];
+        flip = new boolean[nodes];
+        key = new double[nodes];
+        heaviest = new int[nodes];
+        stack = new int[nodes];
+        for (int x = 0; x < nodes; x++)
+            reset(x);
+        mark = new int[V];
+        half = new int[V];
+        otherHalf = new int[V];
+
+        // the links of G, then Kruskal's algorithm to pick the first forest
+        int[] edge = KruskalMST.links(G);
+        double[] latency = KruskalMST.weights(G, edge);
+        int[] order = new int[edge.length];
+        for (int i = 0; i < edge.length; i++) {
+            int e = edge[i], id = G.link(e);
+            from[id] = G.from(e);
+            to[id] = G.to(e);
+            key[V + id] = latency[i];
+            heaviest[V + id] = V + id;
+            present[id] = true;
+            attach(id);
+            order[i] = id;
+        }
+        KruskalMST.sort(order, 0, order.length, linkWeights());
+        UF uf = new UF(V);
+        for (int id : order) {
+            if (!uf.connected(from[id], to[id])) {
+                uf.union(from[id], to[id]);
+                inTree[id] = true;
+                weight += key[V + id];
+            }
+        }
+
+        // hang each tree from its first vertex: every node starts as a
+        // splay tree of its own whose path-parent is its parent in the tree
+        epoch = 2;
+        for (int s = 0; s < V; s++) {
+            if (mark[s] == epoch) continue;
+            mark[s] = epoch;
+            half[0] = s;
+            for (int head = 0, tail = 1; head < tail; head++) {
+                int x = half[head];
+                for (int j = 0; j < degree[x]; j++) {
+                    int id = adj[x][j], y = other(id, x);
+                    if (inTree[id] && mark[y] != epoch) {
+                        mark[y] = epoch;
+                        parent[V + id] = x;
+                        parent[y] = V + id;
+                        half[tail++] = y;
+                    }
+                }
+            }
+        }
+
+        assert check();
+    }
+
+    // the latency of every link, by id
+    private double[] linkWeights() {
+        return Arrays.copyOfRange(key, V, V + links);
+    }
+
+    // a node on its own
+    private void reset(int x) {
+        left[x] = right[x] = parent[x] = -1;
+        flip[x] = false;
+        key[x] = Double.NEGATIVE_INFINITY;
+        heaviest[x] = x;
+    }
+
+    /**
+     * Adds a link from {@code v} to {@code w} with the given latency.
+     *
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  latency the latency of the link
+     * @return the id of the new link
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code latency} is NaN
+     */
+    public int addLink(int v, int w, double latency) {
+        validateVertex(v);
+        validateVertex(w);
+        if (Double.isNaN(latency)) throw new IllegalArgumentException("latency is NaN");
+        if (links == from.length) resize(2 * links + 1);
+        int id = links++;
+        reset(V + id);
+        from[id] = v;
+        to[id] = w;
+        key[V + id] = latency;
+        present[id] = true;
+        attach(id);
+        offer(id);
+        assert check();
+        return id;
+    }
+
+    /**
+     * Removes link {@code id} from the graph.
+     *
+     * @param  id the link
+     * @throws IllegalArgumentException unless link {@code id} is in the graph
+     */
+    public void removeLink(int id) {
+        validateLink(id);
+        detach(id);
+        present[id] = false;
+        if (inTree[id]) {
+            cutTree(id);
+            reconnect(from[id], to[id]);
+        }
+        assert check();
+    }
+
+    /**
+     * Changes the latency of link {@code id}.
+     *
+     * @param  id the link
+     * @param  latency the new latency
+     * @throws IllegalArgumentException unless link {@code id} is in the graph
+     * @throws IllegalArgumentException if {@code latency} is NaN
+     */
+    public void setWeight(int id, double latency) {
+        validateLink(id);
+        if (Double.isNaN(latency)) throw new IllegalArgumentException("latency is NaN");
+        int x = V + id;
+        double old = key[x];
+        if (!inTree[id]) {
+            key[x] = latency;
+            heaviest[x] = x;
+            if (latency < old) offer(id);
+        }
+        else if (latency <= old) {
+            access(x);                      // x is now the root of its splay tree
+            key[x] = latency;
+            pull(x);
+            weight += latency - old;
+        }
+        else {
+            cutTree(id);
+            key[x] = latency;
+            heaviest[x] = x;
+            reconnect(from[id], to[id]);
+        }
+        assert check();
+    }
+
+    // add non-tree link id to the forest if it joins two trees or is lighter
+    // than the heaviest link on the cycle it closes
+    private void offer(int id) {
+        int v = from[id], w = to[id];
+        if (v == w) return;
+        if (findRoot(v) != findRoot(w)) {
+            linkTree(id);
+            return;
+        }
+        makeRoot(v);
+        access(w);
+        int max = heaviest[w];
+        if (heavier(max, V + id)) {
+            cutTree(max - V);
+            linkTree(id);
+        }
+    }
+
+    // v and w were just split apart: join their trees by the lightest link across;
+    // linear in the smaller half, so linear in V + E when the halves are even
+    private void reconnect(int v, int w) {
+        epoch += 2;
+        int a = 0, b = 0, headA = 0, headB = 0;
+        half[a++] = v;
+        mark[v] = epoch;
+        otherHalf[b++] = w;
+        mark[w] = epoch + 1;
+
+        // walk both halves in step until one runs out
+        while (headA < a && headB < b) {
+            a = expand(half, headA++, a, epoch);
+            b = expand(otherHalf, headB++, b, epoch + 1);
+        }
+        int[] small = headA == a ? half : otherHalf;
+        int size = headA == a ? a : b, side = headA == a ? epoch : epoch + 1;
+
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            int x = small[i];
+            for (int j = 0; j < degree[x]; j++) {
+                int id = adj[x][j], y = other(id, x);
+                if (!inTree[id] && mark[y] != side && (best == -1 || heavier(V + best, V + id)))
+                    best = id;
+            }
+        }
+        if (best != -1) linkTree(best);
+    }
+
+    // add the tree neighbours of queue[head] to queue[0..tail) and return the new tail
+    private int expand(int[] queue, int head, int tail, int side) {
+        int x = queue[head];
+        for (int j = 0; j < degree[x]; j++) {
+            int id = adj[x][j], y = other(id, x);
+            if (inTree[id] && mark[y] != side) {
+                mark[y] = side;
+                queue[tail++] = y;
+            }
+        }
+        return tail;
+    }
+
+    private int other(int id, int x) {
+        return from[id] == x ? to[id] : from[id];
+    }
+
+    // is node x heavier than node y? ties are broken by number
+    private boolean heavier(int x, int y) {
+        if (key[x] != key[y]) return key[x] > key[y];
+        return x > y;
+    }
+
+    /***************************************************************************
+     *  Adjacency lists.
+     ***************************************************************************/
+
+    // add link id to the lists of its endpoints (a self-loop is never needed)
+    private void attach(int id) {
+        int v = from[id], w = to[id];
+        if (v == w) return;
+        fromPos[id] = append(v, id);
+        toPos[id] = append(w, id);
+    }
+
+    private int append(int v, int id) {
+        if (degree[v] == adj[v].length) adj[v] = Arrays.copyOf(adj[v], 2 * degree[v]);
+        adj[v][degree[v]] = id;
+        return degree[v]++;
+    }
+
+    // remove link id from the lists of its endpoints
+    private void detach(int id) {
+        int v = from[id], w = to[id];
+        if (v == w) return;
+        delete(v, fromPos[id]);
+        delete(w, toPos[id]);
+    }
+
+    // move the last link at v into position i
+    private void delete(int v, int i) {
+        int last = adj[v][--degree[v]];
+        adj[v][i] = last;
+        if (from[last] == v) fromPos[last] = i;
+        else                 toPos[last] = i;
+    }
+
+    /***************************************************************************
+     *  The link-cut tree.
+     ***************************************************************************/
+
+    // put link id in the forest
+    private void linkTree(int id) {
+        int x = V + id;
+        makeRoot(x);
+        parent[x] = from[id];
+        makeRoot(to[id]);
+        parent[to[id]] = x;
+        inTree[id] = true;
+        weight += key[x];
+    }
+
+    // take link id out of the forest
+    private void cutTree(int id) {
+        int x = V + id;
+        cut(from[id], x);
+        cut(x, to[id]);
+        inTree[id] = false;
+        weight -= key[x];
+    }
+
+    // remove the tree edge between adjacent nodes x and y
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        left[y] = -1;
+        parent[x] = -1;
+        pull(y);
+    }
+
+    // make x the root of its tree
+    private void makeRoot(int x) {
+        access(x);
+        flip[x] = !flip[x];
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        while (true) {
+            push(x);
+            if (left[x] == -1) break;
+            x = left[x];
+        }
+        splay(x);
+        return x;
+    }
+
+    // make the path from the root to x preferred, and x the root of its splay tree
+    private void access(int x) {
+        int last = -1;
+        for (int y = x; y != -1; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == -1 || (left[p] != x && right[p] != x);
+    }
+
+    private void splay(int x) {
+        int n = 0;
+        stack[n++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y])
+            stack[n++] = parent[y];
+        while (n > 0)
+            push(stack[--n]);
+
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                rotate((left[g] == p) == (left[p] == x) ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void rotate(int x) {
+        int p = parent[x], g = parent[p];
+        boolean top = isSplayRoot(p);
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != -1) parent[right[x]] = p;
+            right[x] = p;
+        }
+        else {
+            right[p] = left[x];
+            if (left[x] != -1) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        parent[x] = g;
+        if (!top) {
+            if (left[g] == p) left[g] = x;
+            else              right[g] = x;
+        }
+        pull(p);
+        pull(x);
+    }
+
+    // pass a pending reversal down to the children of x
+    private void push(int x) {
+        if (!flip[x]) return;
+        int swap = left[x];
+        left[x] = right[x];
+        right[x] = swap;
+        if (left[x] != -1)  flip[left[x]] = !flip[left[x]];
+        if (right[x] != -1) flip[right[x]] = !flip[right[x]];
+        flip[x] = false;
+    }
+
+    private void pull(int x) {
+        int max = x;
+        if (left[x] != -1 && heavier(heaviest[left[x]], max))   max = heaviest[left[x]];
+        if (right[x] != -1 && heavier(heaviest[right[x]], max)) max = heaviest[right[x]];
+        heaviest[x] = max;
+    }
+
+    // make room for the given number of links
+    private void resize(int capacity) {
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        present = Arrays.copyOf(present, capacity);
+        inTree = Arrays.copyOf(inTree, capacity);
+        fromPos = Arrays.copyOf(fromPos, capacity);
+        toPos = Arrays.copyOf(toPos, capacity);
+        int nodes = V + capacity;
+        left = Arrays.copyOf(left, nodes);
+        right = Arrays.copyOf(right, nodes);
+        parent = Arrays.copyOf(parent, nodes);
+        flip = Arrays.copyOf(flip, nodes);
+        key = Arrays.copyOf(key, nodes);
+        heaviest = Arrays.copyOf(heaviest, nodes);
+        stack = new int[nodes];
+    }
+
+    /***************************************************************************
+     *  Queries.
+     ***************************************************************************/
+
+    /**
+     * Returns the sum of the latencies of the links in the forest.
+     *
+     * @return the weight of the minimum spanning forest
+     */
+    public double weight() {
+        return weight;
+    }
+
+    /**
+     * Is link {@code id} in the minimum spanning forest?
+     *
+     * @param  id the link
+     * @return {@code true} if link {@code id} is in the forest; {@code false}
+     *         if it is not, or is not in the graph
+     * @throws IllegalArgumentException unless {@code 0 <= id < links}
+     */
+    public boolean inTree(int id) {
+        if (id < 0 || id >= links) throw new IllegalArgumentException("link " + id + " is not between 0 and " + (links-1));
+        return inTree[id];
+    }
+
+    /**
+     * Returns the ids of the links in the minimum spanning forest.
+     *
+     * @return the ids of the links in the forest, in increasing order
+     */
+    public Iterable<Integer> links() {
+        Queue<Integer> tree = new Queue<Integer>();
+        for (int id = 0; id < links; id++)
+            if (inTree[id]) tree.enqueue(id);
+        return tree;
+    }
+
+    /**
+     * Returns the latency of link {@code id}.
+     *
+     * @param  id the link
+     * @return the latency of link {@code id}
+     * @throws IllegalArgumentException unless link {@code id} is in the graph
+     */
+    public double weight(int id) {
+        validateLink(id);
+        return key[V + id];
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // throw an IllegalArgumentException unless link id is in the graph
+    private void validateLink(int id) {
+        if (id < 0 || id >= links || !present[id])
+            throw new IllegalArgumentException("link " + id + " is not in the graph");
+    }
+
+    // check that the forest is the one Kruskal's algorithm picks (takes time proportional to E log E)
+    private boolean check() {
+        int n = 0;
+        int[] order = new int[links];
+        for (int id = 0; id < links; id++)
+            if (present[id]) order[n++] = id;
+        KruskalMST.sort(order, 0, n, linkWeights());
+
+        UF uf = new UF(V);
+        double total = 0.0;
+        for (int i = 0; i < n; i++) {
+            int id = order[i];
+            boolean joins = !uf.connected(from[id], to[id]);
+            if (joins) {
+                uf.union(from[id], to[id]);
+                total += key[V + id];
+            }
+            if (joins != inTree[id]) {
+                System.err.println("link " + id + (joins ? " is missing from" : " should not be in") + " the forest");
+                return false;
+            }
+        }
+        if (Math.abs(total - weight) > 1E-9 * Math.max(1.0, Math.abs(total))) {
+            System.err.printf("Weight of links does not equal weight(): %f vs. %f\n", total, weight);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code DynamicMST} data type by applying the link
+     * changes read from standard input.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        DynamicMST mst = new DynamicMST(G);
+        StdOut.printf("%.9f\n", mst.weight());
+        while (!StdIn.isEmpty()) {
+            String change = StdIn.readString();
+            if (change.equals("add")) {
+                int v = StdIn.readInt(), w = StdIn.readInt();
+                StdOut.print("link " + mst.addLink(v, w, StdIn.readDouble()) + ": ");
+            }
+            else if (change.equals("remove")) mst.removeLink(StdIn.readInt());
+            else if (change.equals("weight")) mst.setWeight(StdIn.readInt(), StdIn.readDouble());
+            else throw new IllegalArgumentException("unknown change " + change);
+            StdOut.printf("%.9f\n", mst.weight());
+        }
+    }
+}
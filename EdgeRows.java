@@ -0,0 +1,52 @@
+/******************************************************************************
+ *  Compilation:  javac EdgeRows.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  The per-link columns an Edge reads its attributes from.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code EdgeRows} interface is what an {@link Edge} is a view onto:
+ *  the attributes of each link, addressed by its edge id. {@link EdgeTable}
+ *  implements it with on-heap arrays and {@link MappedDigraph} with the
+ *  per-link columns of its mapped file, so an {@code Edge} always names a
+ *  real row and its {@code id()} is the id of that row.
+ *
+ *  @author Daniel O'Neill
+ */
+interface EdgeRows {
+
+    /**
+     * Returns the medium code of link {@code id}.
+     *
+     * @param  id the edge id
+     * @return {@code EdgeTable.COPPER} or {@code EdgeTable.OPTICAL}
+     */
+    byte medium(int id);
+
+    /**
+     * Returns the bandwidth of link {@code id}.
+     *
+     * @param  id the edge id
+     * @return the bandwidth of link {@code id}
+     */
+    int bandwidth(int id);
+
+    /**
+     * Returns the cable length of link {@code id} in meters.
+     *
+     * @param  id the edge id
+     * @return the length of link {@code id}
+     */
+    int length(int id);
+
+    /**
+     * Returns the latency of link {@code id}.
+     *
+     * @param  id the edge id
+     * @return the length of link {@code id} divided by the speed of its medium
+     */
+    double latency(int id);
+}
@@ -0,0 +1,217 @@
+/******************************************************************************
+ *  Compilation:  javac EdgeTable.java
+ *  Execution:    none
+ *  Dependencies: Edge.java EdgeRows.java
+ *
+ *  A columnar (struct-of-arrays) table of network links.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ *  The {@code EdgeTable} class stores the links of a network as parallel
+ *  primitive columns addressed by an <em>edge id</em> between 0 and
+ *  {@code size() - 1}: the two endpoints, the medium (copper or optical),
+ *  the bandwidth, the cable length and the resulting latency.
+ *  <p>
+ *  A link is stored once no matter how many directions it is traversed in;
+ *  an {@link Edge} is only a lightweight view onto one row of the table and
+ *  is created on demand with {@code edge()}.
+ *  <p>
+ *  This implementation uses resizing arrays, so {@code add()} takes constant
+ *  amortized time and every other operation takes constant time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class EdgeTable implements EdgeRows {
+    public static final byte COPPER  = 0;
+    public static final byte OPTICAL = 1;
+
+    private static final int COPPER_SPEED  = 230000000;   // meters per second
+    private static final int OPTICAL_SPEED = 200000000;   // meters per second
+
+    private int n;              // number of links in the table
+    private int[] from;         // from[id] = first endpoint of link id
+    private int[] to;           // to[id] = second endpoint of link id
+    private byte[] medium;      // medium[id] = COPPER or OPTICAL
+    private int[] bandwidth;    // bandwidth[id] = capacity of link id
+    private int[] length;       // length[id] = cable length of link id in meters
+    private double[] latency;   // latency[id] = length[id] / speed of the medium
+
+    /**
+     * Initializes an empty edge table.
+     */
+    public EdgeTable() {
+        this(8);
+    }
+
+    /**
+     * Initializes an empty edge table with room for {@code capacity} links.
+     *
+     * @param  capacity the initial capacity
+     * @throws IllegalArgumentException if {@code capacity < 0}
+     */
+    public EdgeTable(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must be nonnegative");
+        from      = new int[capacity];
+        to        = new int[capacity];
+        medium    = new byte[capacity];
+        bandwidth = new int[capacity];
+        length    = new int[capacity];
+        latency   = new double[capacity];
+    }
+
+    /**
+     * Initializes an edge table that takes ownership of the given columns,
+     * which must all have the same length. The latency column is derived
+     * from the medium and length columns.
+     *
+     * @throws IllegalArgumentException if the columns differ in length
+     * @throws IllegalArgumentException if a medium is neither {@code COPPER} nor {@code OPTICAL}
+     */
+    EdgeTable(int[] from, int[] to, byte[] medium, int[] bandwidth, int[] length) {
+        n = from.length;
+        if (to.length != n || medium.length != n || bandwidth.length != n || length.length != n)
+            throw new IllegalArgumentException("edge table columns differ in length");
+        this.from      = from;
+        this.to        = to;
+        this.medium    = medium;
+        this.bandwidth = bandwidth;
+        this.length    = length;
+        this.latency   = new double[n];
+        for (int id = 0; id < n; id++) {
+            if (medium[id] != COPPER && medium[id] != OPTICAL)
+                throw new IllegalArgumentException("unknown medium " + medium[id]);
+            latency[id] = (double) length[id] / (double) speed(medium[id]);
+        }
+    }
+
+    /**
+     * Returns the number of links in this table.
+     *
+     * @return the number of links in this table
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Appends a link to this table.
+     *
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  medium {@code COPPER} or {@code OPTICAL}
+     * @param  bandwidth the bandwidth of the link
+     * @param  length the length of the link in meters
+     * @return the edge id of the new link
+     * @throws IllegalArgumentException unless {@code medium} is {@code COPPER} or {@code OPTICAL}
+     */
+    public int add(int v, int w, byte medium, int bandwidth, int length) {
+        if (medium != COPPER && medium != OPTICAL)
+            throw new IllegalArgumentException("unknown medium " + medium);
+        if (n == from.length) resize(Math.max(8, 2*n));
+        this.from[n]      = v;
+        this.to[n]        = w;
+        this.medium[n]    = medium;
+        this.bandwidth[n] = bandwidth;
+        this.length[n]    = length;
+        this.latency[n]   = (double) length / (double) speed(medium);
+        return n++;
+    }
+
+    /**
+     * Returns a table holding the rows of {@code parts} in order. The parts
+     * are copied into place in parallel, each at its prefix-sum offset.
+     */
+    static EdgeTable concat(EdgeTable[] parts) {
+        int[] start = new int[parts.length + 1];
+        for (int p = 0; p < parts.length; p++)
+            start[p+1] = start[p] + parts[p].n;
+        EdgeTable t = new EdgeTable(start[parts.length]);
+        t.n = start[parts.length];
+        IntStream.range(0, parts.length).parallel().forEach(p -> {
+            EdgeTable part = parts[p];
+            System.arraycopy(part.from,      0, t.from,      start[p], part.n);
+            System.arraycopy(part.to,        0, t.to,        start[p], part.n);
+            System.arraycopy(part.medium,    0, t.medium,    start[p], part.n);
+            System.arraycopy(part.bandwidth, 0, t.bandwidth, start[p], part.n);
+            System.arraycopy(part.length,    0, t.length,    start[p], part.n);
+            System.arraycopy(part.latency,   0, t.latency,   start[p], part.n);
+        });
+        return t;
+    }
+
+    // resize the underlying columns
+    private void resize(int capacity) {
+        from      = Arrays.copyOf(from, capacity);
+        to        = Arrays.copyOf(to, capacity);
+        medium    = Arrays.copyOf(medium, capacity);
+        bandwidth = Arrays.copyOf(bandwidth, capacity);
+        length    = Arrays.copyOf(length, capacity);
+        latency   = Arrays.copyOf(latency, capacity);
+    }
+
+    public int from(int id)         { return from[id];      }
+    public int to(int id)           { return to[id];        }
+    public byte medium(int id)      { return medium[id];    }
+    public int bandwidth(int id)    { return bandwidth[id]; }
+    public int length(int id)       { return length[id];    }
+    public double latency(int id)   { return latency[id];   }
+
+    /**
+     * Returns a view of link {@code id} directed from its first endpoint to its second.
+     *
+     * @param  id the edge id
+     * @return an {@code Edge} view of link {@code id}
+     */
+    public Edge edge(int id) {
+        return new Edge(this, id, from[id], to[id]);
+    }
+
+    /**
+     * Returns a view of link {@code id} directed away from endpoint {@code v}.
+     *
+     * @param  id the edge id
+     * @param  v one endpoint of the link
+     * @return an {@code Edge} view of link {@code id} directed away from {@code v}
+     * @throws IllegalArgumentException if {@code v} is not an endpoint of the link
+     */
+    public Edge edge(int id, int v) {
+        if      (v == from[id]) return new Edge(this, id, from[id], to[id]);
+        else if (v == to[id])   return new Edge(this, id, to[id], from[id]);
+        else throw new IllegalArgumentException("invalid endpoint");
+    }
+
+    /**
+     * Returns the medium code for the medium named in a topology file.
+     * Anything other than {@code "copper"} travels at optical speed.
+     *
+     * @param  type the medium as spelled in the topology file
+     * @return {@code COPPER} or {@code OPTICAL}
+     */
+    public static byte medium(String type) {
+        return type.equals("copper") ? COPPER : OPTICAL;
+    }
+
+    /**
+     * Returns the name of a medium code, as spelled in a topology file.
+     *
+     * @param  medium {@code COPPER} or {@code OPTICAL}
+     * @return {@code "copper"} or {@code "optical"}
+     */
+    public static String type(byte medium) {
+        return medium == COPPER ? "copper" : "optical";
+    }
+
+    /**
+     * Returns the signal speed in meters per second for a medium code.
+     *
+     * @param  medium {@code COPPER} or {@code OPTICAL}
+     * @return the speed of the medium
+     */
+    public static int speed(byte medium) {
+        return medium == COPPER ? COPPER_SPEED : OPTICAL_SPEED;
+    }
+}
@@ -1,12 +1,12 @@
 /******************************************************************************
  *  Compilation:  javac EdgeWeightedDigraph.java
  *  Execution:    java EdgeWeightedDigraph digraph.txt
- *  Dependencies: Bag.java Edge.java
+ *  Dependencies: Bag.java Edge.java EdgeTable.java CSRDigraph.java
  *  Data files:   http://algs4.cs.princeton.edu/44st/tinyEWD.txt
  *                http://algs4.cs.princeton.edu/44st/mediumEWD.txt
  *                http://algs4.cs.princeton.edu/44st/largeEWD.txt
  *
- *  An edge-weighted digraph, implemented using adjacency lists.
+ *  An edge-weighted digraph, implemented using a columnar edge table.
  *
  ******************************************************************************/
 import java.util.NoSuchElementException;
@@ -21,11 +21,16 @@ import java.util.Iterator;
  *  methods for returning the number of vertices <em>V</em> and the number
  *  of edges <em>E</em>. Parallel edges and self-loops are permitted.
  *  <p>
- *  This implementation uses an adjacency-lists representation, which 
- *  is a vertex-indexed array of {@link Bag} objects.
+ *  This implementation stores every link once, as a row of an
+ *  {@link EdgeTable}, and traverses it in both directions. The adjacency
+ *  structure is the {@link CSRDigraph} returned by {@code freeze()};
+ *  the {@link Edge} objects returned by {@code adj()} and {@code edges()}
+ *  are views created on demand.
  *  All operations take constant time (in the worst case) except
  *  iterating over the edges incident from a given vertex, which takes
- *  time proportional to the number of such edges.
+ *  time proportional to the number of such edges, and the first call
+ *  to {@code freeze()} after a change, which takes time proportional to
+ *  <em>V</em> + <em>E</em>.
  *  <p>
  *  For additional documentation,
  *  see <a href="http://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
@@ -39,7 +44,9 @@ public class EdgeWeightedDigraph {
 
     private int V;                // number of vertices in this digraph
     private int E;                      // number of edges in this digraph
-    private Bag<Edge>[] adj;    // adj[v] = adjacency list for vertex v
+    private EdgeTable links;    // links.from(id), links.to(id), ... = columns of link id
+    private int[] degree;       // degree[v] = number of directed edges incident from v
+    private CSRDigraph csr;     // frozen adjacency structure, discarded when an edge is added
     
     /**
      * Initializes an empty edge-weighted digraph with {@code V} vertices and 0 edges.
@@ -51,19 +58,17 @@ public class EdgeWeightedDigraph {
         if (V < 0) throw new IllegalArgumentException("Number of vertices in a Digraph must be nonnegative");
         this.V = V;
         this.E = 0;
-		@SuppressWarnings({"unchecked", "rawtypes"})
-		Bag<Edge>[] temp = (Bag<Edge>[]) new Bag[V];
-		adj = temp;
-        for (int v = 0; v < V; v++)
-            adj[v] = new Bag<Edge>();
+        links = new EdgeTable();
+        degree = new int[V];
     }
 
     /**  
      * Initializes an edge-weighted digraph from the specified input stream.
      * The format is the number of vertices <em>V</em>,
-     * followed by the number of edges <em>E</em>,
-     * followed by <em>E</em> pairs of vertices and edge weights,
+     * followed by one line per link giving its two endpoints, its medium
+     * ({@code copper} or {@code optical}), its bandwidth and its length,
      * with each entry separated by whitespace.
+     * Every link can be traversed in both directions.
      *
      * @param  in the input stream
      * @throws IllegalArgumentException if the endpoints of any edge are not in prescribed range
@@ -73,23 +78,15 @@ public class EdgeWeightedDigraph {
 		try {
             this.V = in.readInt();
             if (V < 0) throw new IllegalArgumentException("number of vertices in a Graph must be nonnegative");
-			@SuppressWarnings({"unchecked", "rawtypes"})
-			Bag<Edge>[] temp = (Bag<Edge>[]) new Bag[V];
-            adj = temp;
-            for (int v = 0; v < V; v++) {
-                adj[v] = new Bag<Edge>();
-            }
+            links = new EdgeTable();
+            degree = new int[V];
             while(true){
                 int v = in.readInt();
                 int w = in.readInt();
 				String x = in.readString();
 				int y = in.readInt();
 				int z = in.readInt();
-                validateVertex(v);
-                validateVertex(w);
-				Edge e = new Edge(v, w, x, y, z);
-				Edge f = new Edge(w, v, x, y, z);
-                addEdges(e,f); 
+                addEdge(v, w, EdgeTable.medium(x), y, z);
 				if(!in.hasNextLine())
 					break;
             }
@@ -98,78 +95,67 @@ public class EdgeWeightedDigraph {
             throw new IllegalArgumentException("invalid input format in Graph constructor", e);
         }
     }
+    /**
+     * Initializes an edge-weighted digraph with {@code V} vertices whose links
+     * are the rows of {@code links}. The table is used as is, not copied.
+     *
+     * @param  V the number of vertices
+     * @param  links the links
+     * @throws IllegalArgumentException if {@code V < 0}
+     * @throws IllegalArgumentException if the endpoints of any link are not in prescribed range
+     */
+    public EdgeWeightedDigraph(int V, EdgeTable links) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices in a Digraph must be nonnegative");
+        this.V = V;
+        this.E = links.size();
+        this.links = links;
+        degree = new int[V];
+        for (int id = 0; id < E; id++) {
+            validateVertex(links.from(id));
+            validateVertex(links.to(id));
+            degree[links.from(id)]++;
+            degree[links.to(id)]++;
+        }
+    }
+
+    // wraps links whose compressed sparse row form has already been built
+    EdgeWeightedDigraph(EdgeTable links, CSRDigraph csr) {
+        this.V = csr.V();
+        this.E = links.size();
+        this.links = links;
+        this.csr = csr;
+        degree = new int[V];
+        for (int v = 0; v < V; v++)
+            degree[v] = csr.outdegree(v);
+    }
+
 	/*	Constructor that copys an existing graph to a new graph with only copper connections
 	*	Parameters: Original graph
 	*
 	*/
 	public EdgeWeightedDigraph(EdgeWeightedDigraph G) {
         this(G.V());
-        this.E = G.E();
-        for (int v = 0; v < G.V(); v++) {
-            for (Edge e : G.adj[v]) {
-				if(e.type().equals("copper")) adj[v].add(e);
-				else E--;
-                
-            }
+        EdgeTable t = G.links;
+        for (int id = 0; id < t.size(); id++) {
+            if (t.medium(id) == EdgeTable.COPPER)
+                addEdge(t.from(id), t.to(id), t.medium(id), t.bandwidth(id), t.length(id));
         }
     }
 	/*  Deletes one vertex in the graph and assigns new indices in the process
 	*	Parameters: Graph and vertex to delete
-	*
+	*	The links of G are copied, not shared, so G itself is left untouched
 	*/
 	public EdgeWeightedDigraph(EdgeWeightedDigraph G, int w){
 		this(G.V()-1);
-		int k = 0;
-        for (int v = 0; v < G.V(); v++) {
-			if(v==w){
-				if(w==G.V()-1) break;
-				//decrement = true;
-				v++;
-			}	
-			for (Edge e : G.adj[v]) {
-				if(e.to() == w){
-					e.setFrom(-1);
-					continue;
-				}
-				if(e.to() > w){
-					e.setTo(e.to()-1);
-				}
-				if(e.from() > w){
-					e.setFrom(e.from()-1);
-				}
-				adj[k].add(e);
-            }
-			k++;
+        EdgeTable t = G.links;
+        for (int id = 0; id < t.size(); id++) {
+            int v = t.from(id), x = t.to(id);
+            if (v == w || x == w) continue;
+            if (v > w) v--;
+            if (x > w) x--;
+            addEdge(v, x, t.medium(id), t.bandwidth(id), t.length(id));
         }
 	}
-	
-	
-	/*	Method that helps with the task of finding two vertices that if removed would make the graph unconnected.
-	*	Reverses the work done in deleting
-	*	Method fixes indices so vertices make sense
-	*	Parameters: Graph and vertex removed
-	*
-	*/
-	public void fixEdges(EdgeWeightedDigraph G, int w){
-		for (int v = 0; v < V; v++) {
-			if(v==w){
-				if(w==G.V()-1) break;
-				//decrement = true;
-				v++;
-			}
-			for (Edge e : adj[v]) {
-				if(e.to() > w){
-					e.setTo(e.to()+1);
-				}
-				if(e.to() == w){
-					if(e.from() != -1){
-						e.setTo(e.to()+1);
-					}
-				}
-				e.setFrom(v);
-			}
-		}
-	}
 
     /**
      * Returns the number of vertices in this edge-weighted digraph.
@@ -194,13 +180,56 @@ public class EdgeWeightedDigraph {
         if (v < 0 || v >= V)
             throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
     }
+	/*	Adds the link e, f being the same link in the opposite direction.
+	*	Only the link's row is kept; e and f themselves are not stored.
+	*/
 	public void addEdges(Edge e, Edge f) {
-        validateVertex(e.from());
-        validateVertex(e.to());
+        addEdge(e.from(), e.to(), EdgeTable.medium(e.type()), e.bandwidth(), e.getLength());
+    }
+
+    /**
+     * Adds a link between {@code v} and {@code w} that can be traversed in
+     * both directions.
+     *
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  medium {@code EdgeTable.COPPER} or {@code EdgeTable.OPTICAL}
+     * @param  bandwidth the bandwidth of the link
+     * @param  length the length of the link in meters
+     * @return the edge id of the new link
+     * @throws IllegalArgumentException unless both endpoints are between {@code 0} and {@code V-1}
+     */
+    public synchronized int addEdge(int v, int w, byte medium, int bandwidth, int length) {
+        validateVertex(v);
+        validateVertex(w);
         E++;
-		//each edge gets added twice in the adjacency list implementation
-        adj[e.from()].add(e);
-        adj[e.to()].add(f);
+        csr = null;
+		//each link is traversed in both directions
+        degree[v]++;
+        degree[w]++;
+        return links.add(v, w, medium, bandwidth, length);
+    }
+
+    /**
+     * Returns the table holding the links of this digraph, indexed by edge id.
+     *
+     * @return the edge table of this digraph
+     */
+    public EdgeTable links() {
+        return links;
+    }
+
+    /**
+     * Returns the compressed sparse row form of this digraph, which the
+     * algorithms iterate over by edge number. It is built on the first
+     * call and reused until another edge is added, so any number of
+     * algorithms may share it, including from different threads.
+     *
+     * @return this digraph in compressed sparse row form
+     */
+    public synchronized CSRDigraph freeze() {
+        if (csr == null) csr = new CSRDigraph(this);
+        return csr;
     }
 
     /**
@@ -212,7 +241,11 @@ public class EdgeWeightedDigraph {
      */
     public Iterable<Edge> adj(int v) {
         validateVertex(v);
-        return adj[v];
+        CSRDigraph G = freeze();
+        Bag<Edge> list = new Bag<Edge>();
+        for (int e = G.begin(v); e < G.end(v); e++)
+            list.add(G.edge(e));
+        return list;
     }
 
     /**
@@ -225,7 +258,7 @@ public class EdgeWeightedDigraph {
      */
     public int outdegree(int v) {
         validateVertex(v);
-        return adj[v].size();
+        return degree[v];
     }
 
     /**
@@ -256,7 +289,7 @@ public class EdgeWeightedDigraph {
         s.append(V + " " + E + NEWLINE);
         for (int v = 0; v < V; v++) {
             s.append(v + ": ");
-            for (Edge e : adj[v]) {
+            for (Edge e : adj(v)) {
                 s.append(e + "  ");
             }
             s.append(NEWLINE);
@@ -0,0 +1,148 @@
+/******************************************************************************
+ *  Compilation:  javac FailureSweep.java
+ *  Execution:    java FailureSweep topology.txt
+ *  Dependencies: IndexedDigraph.java MaskedDigraph.java Biconnected.java
+ *                EdgeWeightedDigraph.java ParallelFor.java ParallelTopologyLoader.java
+ *                Triconnectivity.java StdOut.java
+ *
+ *  Runs the single-vertex failure sweep behind option 5 on all cores: every
+ *  vertex is failed in turn and Biconnected is run on what remains, and
+ *  the answers are streamed in order. The test client checks the sweep
+ *  against Triconnectivity.
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code FailureSweep} class fails each vertex of a digraph in turn and
+ *  reports the vertices that {@link Biconnected} then finds to be
+ *  articulation points, running the scenarios in parallel on a
+ *  {@link ForkJoinPool}.
+ *  <p>
+ *  The digraph itself is never modified. Each task keeps its own
+ *  {@link MaskedDigraph} and {@link Biconnected.Workspace} over the shared
+ *  digraph for the whole sweep, and removes and restores one vertex per
+ *  scenario, so no scenario allocates anything. The vertices are swept in
+ *  rounds of one consecutive vertex per task. After each round the calling
+ *  thread passes the answers on in order of failed vertex, then of
+ *  articulation point. The order therefore never depends on thread timing,
+ *  and only one round of answers is held at a time, not the answers for
+ *  every vertex.
+ *  <p>
+ *  The sweep takes time proportional to <em>V</em> (<em>V</em> + <em>E</em>),
+ *  spread over the threads of the pool, and extra space proportional to
+ *  <em>V</em> + <em>E</em> per task. {@link Triconnectivity} gives the same
+ *  answers in near-linear time and is what option 5 runs. The sweep is the
+ *  direct definition, kept as the reference that the decomposition is
+ *  checked against.
+ *
+ *  @author Daniel O'Neill
+ */
+public class FailureSweep {
+
+    /**
+     *  Receives the answers of a sweep, one pair at a time, on the thread
+     *  that started it.
+     */
+    public interface Pairs {
+
+        /**
+         * Reports that vertex {@code j} is an articulation point once vertex
+         * {@code i} has failed.
+         *
+         * @param  i the failed vertex
+         * @param  j the articulation point
+         */
+        void pair(int i, int j);
+    }
+
+    // this class should not be instantiated
+    private FailureSweep() { }
+
+    /**
+     * Runs the sweep on {@code G} on the common fork/join pool.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  out receives every pair {@code i j}, ordered by {@code i} then by {@code j}
+     */
+    public static void sweep(EdgeWeightedDigraph G, Pairs out) {
+        sweep(G.freeze(), G.E(), ForkJoinPool.commonPool(), out);
+    }
+
+    /**
+     * Runs the sweep on {@code G}, whose links have edge ids 0 through
+     * {@code links} - 1, on the given fork/join pool.
+     *
+     * @param  G the digraph
+     * @param  links the number of links in {@code G}
+     * @param  pool the pool to run the scenarios on
+     * @param  out receives every pair {@code i j}, ordered by {@code i} then by {@code j}
+     */
+    public static void sweep(IndexedDigraph G, int links, ForkJoinPool pool, Pairs out) {
+        int V = G.V();
+        int tasks = Math.max(1, Math.min(V, 4 * pool.getParallelism()));
+        MaskedDigraph[] view = new MaskedDigraph[tasks];
+        Biconnected.Workspace[] work = new Biconnected.Workspace[tasks];
+        int[][] found = new int[tasks][];
+        int[] count = new int[tasks];
+        ParallelFor.range(pool, tasks, c -> {
+            view[c] = new MaskedDigraph(G, links);
+            work[c] = new Biconnected.Workspace(V, G.E());
+            found[c] = new int[V];
+        });
+
+        for (int base = 0; base < V; base += tasks) {
+            int first = base, n = Math.min(tasks, V - base);
+            ParallelFor.range(pool, n, c -> count[c] = scenario(G, first + c, view[c], work[c], found[c]));
+            for (int c = 0; c < n; c++)
+                for (int k = 0; k < count[c]; k++)
+                    out.pair(first + c, found[c][k]);
+        }
+    }
+
+    // fail vertex i in H, put the articulation points of the rest into found in
+    // ascending order, and return how many there are
+    private static int scenario(IndexedDigraph G, int i, MaskedDigraph H, Biconnected.Workspace work, int[] found) {
+        if (!G.hasVertex(i)) return 0;
+        H.removeVertex(i);
+        Biconnected bic = new Biconnected(H, work);
+        int n = 0;
+        for (int j = 0; j < G.V(); j++)
+            if (j != i && bic.isArticulation(j)) found[n++] = j;
+        H.restoreVertex(i);
+        return n;
+    }
+
+    /**
+     * Runs the sweep on a topology file, checks it against
+     * {@link Triconnectivity} and prints how long each took.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = ParallelTopologyLoader.load(args[0]);
+        long start = System.nanoTime();
+        Triconnectivity tri = new Triconnectivity(G);
+        long decomposed = System.nanoTime() - start;
+
+        // every pair the sweep reports must be one of the decomposition's, and as many
+        long expected = 0;
+        for (int i = 0; i < G.V(); i++)
+            for (int j : tri.partners(i))
+                expected++;
+        long[] reported = new long[1];
+        start = System.nanoTime();
+        sweep(G, (i, j) -> {
+            if (!tri.isArticulation(i, j))
+                throw new IllegalStateException("sweep and triconnectivity disagree on " + i + " " + j);
+            reported[0]++;
+        });
+        long swept = System.nanoTime() - start;
+        if (reported[0] != expected)
+            throw new IllegalStateException("sweep found " + reported[0] + " pairs, triconnectivity " + expected);
+
+        StdOut.printf("FailureSweep (%d threads): %5d ms%n", ForkJoinPool.commonPool().getParallelism(), swept / 1000000);
+        StdOut.printf("Triconnectivity:            %5d ms%n", decomposed / 1000000);
+    }
+}
@@ -0,0 +1,227 @@
+/******************************************************************************
+ *  Compilation:  javac FilterKruskalMST.java
+ *  Execution:    java FilterKruskalMST filename.txt
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java Edge.java Queue.java
+ *                KruskalMST.java PrimMST.java UF.java
+ *                ParallelTopologyLoader.java StdOut.java
+ *
+ *  Compute a minimum spanning forest using Filter-Kruskal: quicksort-style
+ *  partitioning of the links, where the heavy side is filtered against the
+ *  forest built from the light side before it is ever sorted.
+ *
+ ******************************************************************************/
+
+import java.util.SplittableRandom;
+
+/**
+ *  The {@code FilterKruskalMST} class represents a data type for computing a
+ *  <em>minimum spanning tree</em> in an edge-weighted graph.
+ *  The edge weights can be positive, zero, or negative and need not
+ *  be distinct. If the graph is not connected, it computes a <em>minimum
+ *  spanning forest</em>, which is the union of minimum spanning trees
+ *  in each connected component. The {@code weight()} method returns the
+ *  weight of a minimum spanning tree and the {@code edges()} method
+ *  returns its edges, in increasing order of weight.
+ *  <p>
+ *  This implementation uses <em>Filter-Kruskal</em>. It takes the links
+ *  the way {@link KruskalMST} does, but instead of sorting them all it
+ *  partitions them around the weight of a random link, as quicksort would.
+ *  The light part is handled first, recursively. Then every heavy link
+ *  whose endpoints the forest already connects is thrown away, and only
+ *  what is left is handled in turn. Once a part has no more links than
+ *  there are components, it is sorted with the parallel primitive sort of
+ *  {@code KruskalMST} and scanned. On a graph with many more links than
+ *  vertices most heavy links are filtered out unsorted, and each filter is
+ *  a sequential pass over an array.
+ *  <p>
+ *  The constructor takes expected time proportional to <em>E</em> +
+ *  <em>V</em> log <em>V</em> log (<em>E</em>/<em>V</em>) on graphs whose
+ *  weights are not chosen against it, <em>E</em> log <em>E</em> at worst,
+ *  and extra space (not including the graph) proportional to <em>E</em>.
+ *  Afterwards, the {@code weight()} method takes constant time
+ *  and the {@code edges()} method takes time proportional to <em>V</em>.
+ *
+ *  @author Daniel O'Neill
+ */
+public class FilterKruskalMST {
+    private static final int CUTOFF = 1024;       // sort parts of at most this many links outright
+
+    private double weight;                        // weight of MST
+    private Queue<Edge> mst = new Queue<Edge>();  // edges in MST
+    private final SplittableRandom random = new SplittableRandom(1501);
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
+     * @param G the edge-weighted graph
+     */
+    public FilterKruskalMST(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-numbered graph.
+     * @param G the edge-weighted graph
+     */
+    public FilterKruskalMST(IndexedDigraph G) {
+        int[] edge = KruskalMST.links(G);
+        double[] weight = KruskalMST.weights(G, edge);
+        int[] links = new int[edge.length];
+        for (int i = 0; i < links.length; i++)
+            links[i] = i;
+        filterKruskal(G, links, 0, links.length, edge, weight, new UF(G.V()));
+
+        // check optimality conditions
+        assert check(G);
+    }
+
+    // add the links a[lo..hi) to the forest, lightest first
+    private void filterKruskal(IndexedDigraph G, int[] a, int lo, int hi, int[] edge, double[] weight, UF uf) {
+        while (hi - lo > Math.max(CUTOFF, uf.count())) {
+
+            // links at most as heavy as the pivot to the left of mid
+            double pivot = weight[a[lo + random.nextInt(hi - lo)]];
+            int mid = lo;
+            for (int i = lo; i < hi; i++) {
+                if (weight[a[i]] <= pivot) {
+                    int swap = a[i];
+                    a[i] = a[mid];
+                    a[mid++] = swap;
+                }
+            }
+            // the pivot was the heaviest weight: put the links strictly lighter
+            // to the left instead, so the links tied with it are filtered as one part
+            if (mid == hi) {
+                mid = lo;
+                for (int i = lo; i < hi; i++) {
+                    if (weight[a[i]] < pivot) {
+                        int swap = a[i];
+                        a[i] = a[mid];
+                        a[mid++] = swap;
+                    }
+                }
+                if (mid == lo) break;      // every link weighs the same: sort them all
+            }
+            filterKruskal(G, a, lo, mid, edge, weight, uf);
+
+            // keep the heavy links that would still join two components
+            lo = mid;
+            int n = lo;
+            for (int i = mid; i < hi; i++) {
+                int e = edge[a[i]];
+                if (!uf.connected(G.from(e), G.to(e))) a[n++] = a[i];
+            }
+            hi = n;
+        }
+
+        KruskalMST.sort(a, lo, hi, weight);
+        for (int i = lo; i < hi; i++) {
+            int e = edge[a[i]];
+            int v = G.from(e), w = G.to(e);
+            if (!uf.connected(v, w)) {
+                uf.union(v, w);
+                mst.enqueue(G.edge(e));
+                this.weight += weight[a[i]];
+            }
+        }
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges, in increasing order of weight
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // check optimality conditions (takes time proportional to E V lg* V)
+    private boolean check(IndexedDigraph G) {
+
+        // check total weight
+        double total = 0.0;
+        for (Edge e : edges()) {
+            total += e.weight();
+        }
+        if (Math.abs(total - weight()) > 1E-12 * Math.max(1.0, Math.abs(total))) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", total, weight());
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (Edge e : edges()) {
+            int v = e.from(), w = e.to();
+            if (uf.connected(v, w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (int e = 0; e < G.E(); e++) {
+            if (G.hasEdge(e) && !uf.connected(G.from(e), G.to(e))) {
+                System.err.println("Not a spanning forest");
+                return false;
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        for (Edge e : edges()) {
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (Edge f : mst) {
+                if (f != e) uf.union(f.from(), f.to());
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (int f = 0; f < G.E(); f++) {
+                int x = G.from(f), y = G.to(f);
+                if (G.hasEdge(f) && !uf.connected(x, y)) {
+                    if (G.weight(f) < e.weight()) {
+                        System.err.println("Edge " + G.edge(f) + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code FilterKruskalMST} data type by comparing it with
+     * {@link KruskalMST} and {@link PrimMST} and printing how long each took.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = ParallelTopologyLoader.load(args[0]);
+        CSRDigraph H = G.freeze();
+        long start = System.nanoTime();
+        FilterKruskalMST filter = new FilterKruskalMST(H);
+        long filtered = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        KruskalMST kruskal = new KruskalMST(H);
+        long sorted = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        PrimMST prim = new PrimMST(H);
+        long heap = System.nanoTime() - start;
+
+        StdOut.printf("FilterKruskalMST: %5d ms, weight %.5f%n", filtered / 1000000, filter.weight());
+        StdOut.printf("KruskalMST:       %5d ms, weight %.5f%n", sorted / 1000000, kruskal.weight());
+        StdOut.printf("PrimMST:          %5d ms, weight %.5f%n", heap / 1000000, prim.weight());
+    }
+}
@@ -0,0 +1,164 @@
+/******************************************************************************
+ *  Compilation:  javac FilteredDigraph.java
+ *  Execution:    java FilteredDigraph topology.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java CSRDigraph.java
+ *                EdgeTable.java BreadthFirstPaths.java In.java StdOut.java
+ *
+ *  A zero-copy view of an edge-weighted digraph that hides every link
+ *  failing a filter, such as "copper only" or "at least 1 Gbit/s".
+ *
+ ******************************************************************************/
+
+import java.util.function.IntPredicate;
+
+/**
+ *  The {@code FilteredDigraph} class is a view of an {@link EdgeWeightedDigraph}
+ *  that contains only the links passing a filter. It shares the adjacency
+ *  arrays of the digraph's {@link CSRDigraph} and keeps nothing but one bit
+ *  per link, indexed by edge id, so creating a view takes time proportional
+ *  to the number of links and allocates <em>E</em>/8 bytes.
+ *  <p>
+ *  A link is kept or hidden as a whole, so both directions of a link are
+ *  always either present or absent. The algorithms skip every edge for which
+ *  {@code hasEdge()} returns false; edge numbers are those of the underlying
+ *  digraph, so {@code E()} still counts the hidden edges.
+ *  <p>
+ *  Views can be narrowed further with {@code and()}, which combines the masks
+ *  without touching the adjacency either.
+ *
+ *  @author Daniel O'Neill
+ */
+public class FilteredDigraph implements IndexedDigraph {
+    private final CSRDigraph G;       // the underlying digraph
+    private final EdgeTable links;    // its links, for evaluating filters
+    private final long[] keep;        // bit id of keep[] is set iff link id is in the view
+
+    /**
+     * Initializes a view of {@code G} holding the links whose edge id satisfies {@code filter}.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  filter the test applied to the edge id of every link
+     */
+    public FilteredDigraph(EdgeWeightedDigraph G, IntPredicate filter) {
+        this(G.freeze(), G.links(), null, filter);
+    }
+
+    // view of G keeping the links in mask (all of them if mask is null) that pass filter
+    private FilteredDigraph(CSRDigraph G, EdgeTable links, long[] mask, IntPredicate filter) {
+        this.G = G;
+        this.links = links;
+        this.keep = new long[(links.size() + 63) >>> 6];
+        for (int id = 0; id < links.size(); id++) {
+            boolean inMask = mask == null || (mask[id >>> 6] & (1L << id)) != 0;
+            if (inMask && filter.test(id)) keep[id >>> 6] |= 1L << id;
+        }
+    }
+
+    /**
+     * Returns a view of {@code G} holding only the links of the given medium.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  medium {@code EdgeTable.COPPER} or {@code EdgeTable.OPTICAL}
+     * @return the filtered view
+     */
+    public static FilteredDigraph medium(EdgeWeightedDigraph G, byte medium) {
+        EdgeTable links = G.links();
+        return new FilteredDigraph(G.freeze(), links, null, id -> links.medium(id) == medium);
+    }
+
+    /**
+     * Returns a view of {@code G} holding only the links with at least the given bandwidth.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  bandwidth the minimum bandwidth
+     * @return the filtered view
+     */
+    public static FilteredDigraph minBandwidth(EdgeWeightedDigraph G, int bandwidth) {
+        EdgeTable links = G.links();
+        return new FilteredDigraph(G.freeze(), links, null, id -> links.bandwidth(id) >= bandwidth);
+    }
+
+    /**
+     * Returns a view of {@code G} holding only the links no longer than the given length.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  length the maximum length in meters
+     * @return the filtered view
+     */
+    public static FilteredDigraph maxLength(EdgeWeightedDigraph G, int length) {
+        EdgeTable links = G.links();
+        return new FilteredDigraph(G.freeze(), links, null, id -> links.length(id) <= length);
+    }
+
+    /**
+     * Returns a view holding the links of this view whose edge id also satisfies {@code filter}.
+     *
+     * @param  filter the test applied to the edge id of every link in this view
+     * @return the narrower view
+     */
+    public FilteredDigraph and(IntPredicate filter) {
+        return new FilteredDigraph(G, links, keep, filter);
+    }
+
+    /**
+     * Returns true if the link with the given edge id is in this view.
+     *
+     * @param  id the edge id
+     * @return {@code true} if link {@code id} passes the filter; {@code false} otherwise
+     */
+    public boolean hasLink(int id) {
+        return (keep[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns true if edge {@code e} is in this view.
+     *
+     * @param  e the edge number
+     * @return {@code true} if the link under edge {@code e} passes the filter
+     */
+    public boolean hasEdge(int e) {
+        return hasLink(G.link(e));
+    }
+
+    public int V()                 { return G.V();            }
+    public int E()                 { return G.E();            }
+    public int begin(int v)        { return G.begin(v);       }
+    public int end(int v)          { return G.end(v);         }
+    public int from(int e)         { return G.from(e);        }
+    public int to(int e)           { return G.to(e);          }
+    public double weight(int e)    { return G.weight(e);      }
+    public int bandwidth(int e)    { return G.bandwidth(e);   }
+    public int twin(int e)         { return G.twin(e);        }
+    public int link(int e)         { return G.link(e);        }
+    public Edge edge(int e)        { return G.edge(e);        }
+
+    /**
+     * Returns the number of edges in this view incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of edges in this view incident from vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int outdegree(int v) {
+        int degree = 0;
+        for (int e = G.begin(v); e < G.end(v); e++)
+            if (hasEdge(e)) degree++;
+        return degree;
+    }
+
+    /**
+     * Unit tests the {@code FilteredDigraph} data type by reporting whether
+     * the copper links alone connect the topology.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        FilteredDigraph copper = medium(G, EdgeTable.COPPER);
+        BreadthFirstPaths bfs = new BreadthFirstPaths(copper, 0);
+        int reached = 0;
+        for (int v = 0; v < G.V(); v++)
+            if (bfs.hasPathTo(v)) reached++;
+        StdOut.println(reached + " of " + G.V() + " vertices reachable from 0 over copper");
+    }
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac FordFulkerson.java
- *  Execution:    java FordFulkerson V E
- *  Dependencies: FlowNetwork.java FlowEdge.java Queue.java
+ *  Execution:    java FordFulkerson topology.txt s t
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java
  *  Data files:   http://algs4.cs.princeton.edu/65maxflow/tinyFN.txt
  *
  *  Ford-Fulkerson algorithm for computing a max flow and 
@@ -29,6 +29,11 @@
  *  If the capacities and floating-point numbers, then floating-point
  *  roundoff error can accumulate.
  *  <p>
+ *  The flow is kept in an array owned by this object and indexed by edge
+ *  number; the network itself is only read. The same graph can therefore
+ *  be queried again without being reloaded, and any number of max-flow
+ *  computations can run on it concurrently.
+ *  <p>
  *  For additional documentation,
  *  see <a href="http://algs4.cs.princeton.edu/64maxflow">Section 6.4</a> of
  *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
@@ -41,9 +46,9 @@ public class FordFulkerson {
 
     private final int V;          // number of vertices
     private boolean[] marked;     // marked[v] = true iff s->v path in residual graph
-    private Edge[] edgeTo;    // edgeTo[v] = last edge on shortest residual s->v path
+    private int[] edgeTo;         // edgeTo[v] = number of last edge on shortest residual s->v path
+    private int[] flow;           // flow[e] = flow on edge e; the twin of e carries -flow[e]
     private int value;         // current value of max flow
-	private int trash;
   
     /**
      * Compute a maximum flow and minimum cut in the network {@code G}
@@ -55,29 +60,46 @@ public class FordFulkerson {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      * @throws IllegalArgumentException unless {@code 0 <= t < V}
      * @throws IllegalArgumentException if {@code s == t}
-     * @throws IllegalArgumentException if initial flow is infeasible
      */
     public FordFulkerson(EdgeWeightedDigraph G, int s, int t) {
+        this(G.freeze(), s, t);
+    }
+
+    /**
+     * Compute a maximum flow and minimum cut in the edge-numbered
+     * network {@code G} from vertex {@code s} to vertex {@code t}.
+     * The twin of each edge serves as its residual edge, so a link of
+     * bandwidth <em>c</em> can carry up to <em>c</em> in either direction.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     */
+    public FordFulkerson(IndexedDigraph G, int s, int t) {
         V = G.V();
         validate(s);
         validate(t);
         if (s == t)               throw new IllegalArgumentException("Source equals sink");
-        if (!isFeasible(G, s, t)) throw new IllegalArgumentException("Initial flow is infeasible");
+        flow = new int[G.E()];
 
         // while there exists an augmenting path, use it
-        value = excess(G, t);
+        value = 0;
         while (hasAugmentingPath(G, s, t)) {
-			//System.out.println("going");
 
             // compute bottleneck capacity
-            int bottle = (int)Double.POSITIVE_INFINITY;
-            for (int v = t; v != s; v = edgeTo[v].from()) {	
-                bottle = Math.min(bottle, edgeTo[v].residualCapacityTo(v));
+            int bottle = Integer.MAX_VALUE;
+            for (int v = t; v != s; v = G.from(edgeTo[v])) {
+                bottle = Math.min(bottle, residualCapacity(G, edgeTo[v]));
             }
 
             // augment flow
-            for (int v = t; v != s; v = edgeTo[v].from()) {
-                edgeTo[v].addResidualFlowTo(v, bottle); 
+            for (int v = t; v != s; v = G.from(edgeTo[v])) {
+                int e = edgeTo[v];
+                flow[e] += bottle;
+                if (G.twin(e) != -1) flow[G.twin(e)] -= bottle;
             }
 			
             value += bottle;
@@ -87,6 +109,11 @@ public class FordFulkerson {
         assert check(G, s, t);
     }
 
+    // residual capacity of edge e
+    private int residualCapacity(IndexedDigraph G, int e) {
+        return G.bandwidth(e) - flow[e];
+    }
+
     /**
      * Returns the value of the maximum flow.
      *
@@ -96,6 +123,21 @@ public class FordFulkerson {
         return value;
     }
 
+    /**
+     * Returns the flow this max flow sends along edge {@code e} of the network.
+     * The flow along the twin of {@code e} is the negation of this value.
+     *
+     * @param  e the edge number
+     * @return the flow along edge {@code e}; negative if the flow over its
+     *         link runs the other way
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public int flow(int e)  {
+        if (e < 0 || e >= flow.length)
+            throw new IllegalArgumentException("edge " + e + " is not between 0 and " + (flow.length-1));
+        return flow[e];
+    }
+
     /**
      * Returns true if the specified vertex is on the {@code s} side of the mincut.
      *
@@ -120,26 +162,27 @@ public class FordFulkerson {
     // if so, upon termination edgeTo[] will contain a parent-link representation of such a path
     // this implementation finds a shortest augmenting path (fewest number of edges),
     // which performs well both in theory and in practice
-    private boolean hasAugmentingPath(EdgeWeightedDigraph G, int s, int t) {
-        edgeTo = new Edge[G.V()];
+    private boolean hasAugmentingPath(IndexedDigraph G, int s, int t) {
+        edgeTo = new int[G.V()];
         marked = new boolean[G.V()];
 
         // breadth-first search
-        Queue<Integer> queue = new Queue<Integer>();
-        queue.enqueue(s);
+        int[] queue = new int[G.V()];
+        int head = 0, tail = 0;
+        queue[tail++] = s;
         marked[s] = true;
-        while (!queue.isEmpty() && !marked[t]) {
-            int v = queue.dequeue();
+        while (head < tail && !marked[t]) {
+            int v = queue[head++];
 
-            for (Edge e : G.adj(v)) {
-                int w = e.to();
+            for (int e = G.begin(v); e < G.end(v); e++) {
+                int w = G.to(e);
 
                 // if residual capacity from v to w
-                if (e.residualCapacityTo(w) > 0) {
+                if (G.hasEdge(e) && residualCapacity(G, e) > 0) {
                     if (!marked[w]) {
                         edgeTo[w] = e;
                         marked[w] = true;
-                        queue.enqueue(w);
+                        queue[tail++] = w;
                     }
                 }
             }
@@ -151,26 +194,30 @@ public class FordFulkerson {
 
 	
 
-    // return excess flow at vertex v
-    private int excess(EdgeWeightedDigraph G, int v) {
+    // return excess flow at vertex v; only the positive half of each
+    // twin pair is counted, since the other half mirrors it
+    private int excess(IndexedDigraph G, int v) {
         int excess = 0;
-        for (Edge e : G.adj(v)) {
-            if (v == e.from()) excess -= e.flow();
-            else               excess += e.flow();
+        for (int e = G.begin(v); e < G.end(v); e++) {
+            if (flow[e] > 0) excess -= flow[e];
+            int f = G.twin(e);
+            if (f != -1 && flow[f] > 0) excess += flow[f];
         }
         return excess;
     }
 
     // return excess flow at vertex v
-    private boolean isFeasible(EdgeWeightedDigraph G, int s, int t) {
+    private boolean isFeasible(IndexedDigraph G, int s, int t) {
 
         // check that capacity constraints are satisfied
-        for (int v = 0; v < G.V(); v++) {
-            for (Edge e : G.adj(v)) {
-                if (e.flow() < 0 || e.flow() > e.bandwidth()) {
-                    System.err.println("Edge does not satisfy capacity constraints: " + e);
-                    return false;
-                }
+        for (int e = 0; e < G.E(); e++) {
+            if (flow[e] > G.bandwidth(e)) {
+                System.err.println("Edge does not satisfy capacity constraints: " + G.edge(e));
+                return false;
+            }
+            if (G.twin(e) == -1 ? flow[e] < 0 : flow[e] != -flow[G.twin(e)]) {
+                System.err.println("Edge flow is not skew symmetric: " + G.edge(e));
+                return false;
             }
         }
 
@@ -198,7 +245,7 @@ public class FordFulkerson {
 
 
     // check optimality conditions
-    private boolean check(EdgeWeightedDigraph G, int s, int t) {
+    private boolean check(IndexedDigraph G, int s, int t) {
 
         // check that flow is feasible
         if (!isFeasible(G, s, t)) {
@@ -218,11 +265,9 @@ public class FordFulkerson {
 
         // check that value of min cut = value of max flow
         int mincutValue = 0;
-        for (int v = 0; v < G.V(); v++) {
-            for (Edge e : G.adj(v)) {
-                if ((v == e.from()) && inCut(e.from()) && !inCut(e.to()))
-                    mincutValue += e.bandwidth();
-            }
+        for (int e = 0; e < G.E(); e++) {
+            if (G.hasEdge(e) && inCut(G.from(e)) && !inCut(G.to(e)))
+                mincutValue += G.bandwidth(e);
         }
 
         if (Math.abs(mincutValue - value) > 0) {
@@ -238,24 +283,18 @@ public class FordFulkerson {
      * Unit tests the {@code FordFulkerson} data type.
      *
      * @param args the command-line arguments
-     *
+     */
     public static void main(String[] args) {
-
-        // create flow network with V vertices and E edges
-        int V = Integer.parseInt(args[0]);
-        int E = Integer.parseInt(args[1]);
-        int s = 0, t = V-1;
-        FlowNetwork G = new FlowNetwork(V, E);
-        StdOut.println(G);
+        In in = new In(args[0]);
+        CSRDigraph G = new EdgeWeightedDigraph(in).freeze();
+        int s = Integer.parseInt(args[1]), t = Integer.parseInt(args[2]);
 
         // compute maximum flow and minimum cut
         FordFulkerson maxflow = new FordFulkerson(G, s, t);
         StdOut.println("Max flow from " + s + " to " + t);
-        for (int v = 0; v < G.V(); v++) {
-            for (FlowEdge e : G.adj(v)) {
-                if ((v == e.from()) && e.flow() > 0)
-                    StdOut.println("   " + e);
-            }
+        for (int e = 0; e < G.E(); e++) {
+            if (maxflow.flow(e) > 0)
+                StdOut.println("   " + G.from(e) + "->" + G.to(e) + " " + maxflow.flow(e) + "/" + G.bandwidth(e));
         }
 
         // print min-cut
@@ -266,6 +305,6 @@ public class FordFulkerson {
         StdOut.println();
 
         StdOut.println("Max flow value = " +  maxflow.value());
-    }*/
+    }
 
 }
\ No newline at end of file
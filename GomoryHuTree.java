@@ -0,0 +1,243 @@
+/******************************************************************************
+ *  Compilation:  javac GomoryHuTree.java
+ *  Execution:    java GomoryHuTree topology.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java PushRelabel.java
+ *                ParallelFor.java ParallelTopologyLoader.java Dinic.java StdOut.java
+ *
+ *  Builds the Gomory-Hu tree of a topology with V-1 max-flow computations
+ *  spread over all cores, then answers the maximum bandwidth between any
+ *  two vertices from the tree alone.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code GomoryHuTree} class represents the Gomory-Hu tree of an
+ *  undirected flow network: a tree on the same vertices in which the
+ *  maximum flow between any two vertices equals the smallest capacity on
+ *  the tree path between them, and removing that tree edge splits the
+ *  vertices along a minimum cut. Once the tree is built, the maximum
+ *  bandwidth between any pair takes no max-flow computation at all.
+ *  <p>
+ *  The tree is built with Gusfield's algorithm, which needs only
+ *  <em>V</em> - 1 max-flow computations on the unmodified network: vertex
+ *  {@code s} is cut from its current tree parent, and the vertices on its
+ *  side of the cut that hung from the same parent move under {@code s}. Each
+ *  computation depends on the parents left by the ones before it, so the
+ *  builder works in batches. A batch computes the next few cuts in
+ *  parallel on a {@link ForkJoinPool}, with each vertex's current parent,
+ *  and then applies them in order. Once a cut moves the parent of a later
+ *  vertex in the same batch, that vertex and the ones after it wait for the
+ *  next batch. The result is the same tree the sequential algorithm builds.
+ *  Each cut is computed with the first phase of {@link PushRelabel}, which
+ *  is all the value and the cut need.
+ *  <p>
+ *  Path minimums use jump pointers (Myers 1983) with the smallest capacity
+ *  under each pointer, so {@code maxBandwidth()} takes time logarithmic in
+ *  <em>V</em> and the tree takes space proportional to <em>V</em>.
+ *
+ *  @author Daniel O'Neill
+ */
+public class GomoryHuTree {
+    private final int V;
+    private final int[] parent;     // parent of v in the tree; the root 0 is its own parent
+    private final int[] capacity;   // capacity of the tree edge from v to its parent
+    private final int[] depth;      // depth of v in the tree rooted at 0
+    private final int[] jump;       // jump pointer of v
+    private final int[] jumpMin;    // smallest capacity on the tree path from v up to jump[v]
+
+    /**
+     * Builds the Gomory-Hu tree of {@code G} on the common fork/join pool.
+     *
+     * @param  G the edge-weighted digraph
+     */
+    public GomoryHuTree(EdgeWeightedDigraph G) {
+        this(G.freeze(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the Gomory-Hu tree of {@code G}, whose edges must all have
+     * twins, computing the cuts of each batch on the given pool.
+     *
+     * @param  G the flow network
+     * @param  pool the pool to run the max-flow computations on
+     * @throws IllegalArgumentException if some edge of {@code G} has no twin
+     */
+    public GomoryHuTree(IndexedDigraph G, ForkJoinPool pool) {
+        V = G.V();
+        parent = new int[V];
+        capacity = new int[V];
+        int batch = 2 * pool.getParallelism();
+        int[] target = new int[batch];
+        PushRelabel[] cuts = new PushRelabel[batch];
+
+        for (int s = 1; s < V; ) {
+            int k = Math.min(batch, V - s), first = s;
+            for (int j = 0; j < k; j++)
+                target[j] = parent[first + j];
+            ParallelFor.range(pool, k, j ->
+                cuts[j] = new PushRelabel(G, first + j, target[j], true));
+
+            // apply the cuts in order until one was computed against a parent that has since moved
+            for (int j = 0; j < k && parent[s] == target[j]; j++, s++) {
+                PushRelabel cut = cuts[j];
+                int t = target[j];
+                capacity[s] = cut.value();
+                for (int i = 0; i < V; i++)
+                    if (i != s && parent[i] == t && cut.inCut(i)) parent[i] = s;
+                if (cut.inCut(parent[t])) {
+                    parent[s] = parent[t];
+                    parent[t] = s;
+                    capacity[s] = capacity[t];
+                    capacity[t] = cut.value();
+                }
+            }
+            Arrays.fill(cuts, null);
+        }
+
+        // depths and jump pointers, parents before children
+        depth = new int[V];
+        jump = new int[V];
+        jumpMin = new int[V];
+        int[] order = treeOrder();
+        for (int k = 0; k < order.length; k++) {
+            int v = order[k];
+            if (v == 0) continue;
+            int p = parent[v], j = jump[p];
+            depth[v] = depth[p] + 1;
+            if (p != 0 && depth[p] - depth[j] == depth[j] - depth[jump[j]]) {
+                jump[v] = jump[j];
+                jumpMin[v] = Math.min(capacity[v], Math.min(jumpMin[p], jumpMin[j]));
+            }
+            else {
+                jump[v] = p;
+                jumpMin[v] = capacity[v];
+            }
+        }
+    }
+
+    // the vertices in breadth-first order from the root 0
+    private int[] treeOrder() {
+        int[] start = new int[V+1];
+        for (int v = 1; v < V; v++)
+            start[parent[v]+1]++;
+        for (int v = 0; v < V; v++)
+            start[v+1] += start[v];
+        int[] children = new int[V];
+        int[] next = Arrays.copyOf(start, V);
+        for (int v = 1; v < V; v++)
+            children[next[parent[v]]++] = v;
+        int[] order = new int[V];
+        int head = 0, tail = 0;
+        if (V > 0) order[tail++] = 0;
+        while (head < tail) {
+            int v = order[head++];
+            for (int k = start[v]; k < start[v+1]; k++)
+                order[tail++] = children[k];
+        }
+        return order;
+    }
+
+    /**
+     * Returns the value of a maximum flow between vertices {@code u} and
+     * {@code w}: the smallest capacity on the tree path between them.
+     *
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return the maximum bandwidth between {@code u} and {@code w}
+     * @throws IllegalArgumentException unless {@code 0 <= u < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code u == w}
+     */
+    public int maxBandwidth(int u, int w) {
+        validate(u);
+        validate(w);
+        if (u == w) throw new IllegalArgumentException("Source equals sink");
+        int min = Integer.MAX_VALUE;
+        if (depth[u] < depth[w]) {
+            int x = u;
+            u = w;
+            w = x;
+        }
+        while (depth[u] > depth[w]) {
+            if (depth[jump[u]] >= depth[w]) {
+                min = Math.min(min, jumpMin[u]);
+                u = jump[u];
+            }
+            else {
+                min = Math.min(min, capacity[u]);
+                u = parent[u];
+            }
+        }
+        while (u != w) {
+            if (jump[u] != jump[w]) {
+                min = Math.min(min, Math.min(jumpMin[u], jumpMin[w]));
+                u = jump[u];
+                w = jump[w];
+            }
+            else {
+                min = Math.min(min, Math.min(capacity[u], capacity[w]));
+                u = parent[u];
+                w = parent[w];
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the parent of vertex {@code v} in the tree.
+     *
+     * @param  v the vertex
+     * @return the parent of {@code v}; the root, vertex 0, is its own parent
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int parent(int v) {
+        validate(v);
+        return parent[v];
+    }
+
+    /**
+     * Returns the capacity of the tree edge from vertex {@code v} to its
+     * parent, which is the value of a minimum cut between them.
+     *
+     * @param  v the vertex
+     * @return the capacity of the tree edge above {@code v}, or 0 for the root
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int capacity(int v) {
+        validate(v);
+        return v == 0 ? 0 : capacity[v];
+    }
+
+    // throw an IllegalArgumentException if v is outside prescibed range
+    private void validate(int v)  {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code GomoryHuTree} data type by printing the tree and
+     * checking every pair against {@link Dinic} on small topologies.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = ParallelTopologyLoader.load(args[0]);
+        long start = System.nanoTime();
+        GomoryHuTree tree = new GomoryHuTree(G);
+        long built = System.nanoTime() - start;
+
+        for (int v = 1; v < G.V(); v++)
+            StdOut.println(v + "-" + tree.parent(v) + " " + tree.capacity(v));
+        StdOut.printf("built in %d ms on %d threads%n", built / 1000000, ForkJoinPool.commonPool().getParallelism());
+
+        if (G.V() <= 100) {
+            for (int u = 0; u < G.V(); u++)
+                for (int w = u+1; w < G.V(); w++)
+                    if (tree.maxBandwidth(u, w) != new Dinic(G, u, w).value())
+                        throw new IllegalStateException("tree and max flow disagree on " + u + " " + w);
+            StdOut.println("all pairs agree with Dinic");
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/******************************************************************************
+ *  Compilation:  javac IncrementalMaxFlow.java
+ *  Execution:    java IncrementalMaxFlow topology.txt s t < changes.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java Dinic.java
+ *                In.java StdIn.java StdOut.java
+ *
+ *  Keeps a maximum st-flow up to date while link bandwidths are changed
+ *  one at a time. Each line of input is "id bandwidth", the edge id of a
+ *  link and its new bandwidth; the new max flow value is printed after it.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code IncrementalMaxFlow} class maintains a maximum st-flow in a
+ *  flow network whose link bandwidths change, without solving from zero
+ *  after each change.
+ *  <p>
+ *  The bandwidths are kept in an array of this object over the unmodified
+ *  network, so changes are seen only by this flow. Raising a bandwidth
+ *  keeps the current flow feasible, and {@link Dinic} simply continues
+ *  augmenting from it. Lowering a bandwidth below the flow the link carries
+ *  leaves one endpoint with surplus flow and the other short of it. The
+ *  repair first sends the surplus around the link along residual paths,
+ *  and returns what cannot go around to the source or the sink; then it
+ *  does the same for the shortfall. Dinic then continues from the repaired
+ *  flow. Either way only paths near the change are searched.
+ *  <p>
+ *  One {@code Dinic} object is kept and resumed after every change, so its
+ *  arrays are allocated once, and the value of the flow is kept up to date
+ *  as the repair moves flow into and out of the sink, so it is never
+ *  recounted. A change that keeps the flow within the bandwidth of the link
+ *  cannot change the maximum, and is not searched at all, unless it raises
+ *  the bandwidth of a link across the current minimum cut.
+ *  <p>
+ *  Such a change takes constant time. Any other change takes time
+ *  proportional to the part of the network each repair path searches, and
+ *  to <em>V</em> + <em>E</em> per Dinic phase it needs, including the final search that proves the flow is
+ *  maximum, which covers the source side of the minimum cut. For a single
+ *  link that is usually a handful of searches. Afterwards, the
+ *  {@code inCut()} and {@code value()} methods take constant time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class IncrementalMaxFlow {
+    private final IndexedDigraph G;
+    private final int s, t;
+    private final int[] bandwidth;      // current bandwidth of edge e
+    private final int[] flow;           // flow[e] = flow on edge e; the twin of e carries -flow[e]
+    private final IndexedDigraph network;
+    private final int[] edgeTo;         // last edge on the repair path to v, or -1
+    private final int[] queue;
+    private int reached;                // where the last repair path ended
+    private int value;                  // net flow into t
+    private final Dinic maxflow;        // resumed after every change; holds the min cut
+
+    /**
+     * Compute a maximum flow in the network {@code G} from vertex {@code s}
+     * to vertex {@code t}, ready to follow bandwidth changes.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     */
+    public IncrementalMaxFlow(EdgeWeightedDigraph G, int s, int t) {
+        this(G.freeze(), s, t);
+    }
+
+    /**
+     * Compute a maximum flow in the edge-numbered network {@code G} from
+     * vertex {@code s} to vertex {@code t}, ready to follow bandwidth changes.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     */
+    public IncrementalMaxFlow(IndexedDigraph G, int s, int t) {
+        this.G = G;
+        this.s = s;
+        this.t = t;
+        bandwidth = new int[G.E()];
+        for (int e = 0; e < G.E(); e++)
+            bandwidth[e] = G.bandwidth(e);
+        flow = new int[G.E()];
+        network = new Bandwidths();
+        edgeTo = new int[G.V()];
+        Arrays.fill(edgeTo, -1);
+        queue = new int[G.V()];
+        maxflow = new Dinic(network, s, t, flow);
+        value = maxflow.value();
+    }
+
+    // the network with the bandwidths of this object
+    private class Bandwidths implements IndexedDigraph {
+        public int V()                  { return G.V();            }
+        public int E()                  { return G.E();            }
+        public int begin(int v)         { return G.begin(v);       }
+        public int end(int v)           { return G.end(v);         }
+        public int from(int e)          { return G.from(e);        }
+        public int to(int e)            { return G.to(e);          }
+        public double weight(int e)     { return G.weight(e);      }
+        public int bandwidth(int e)     { return bandwidth[e];     }
+        public int twin(int e)          { return G.twin(e);        }
+        public int link(int e)          { return G.link(e);        }
+        public Edge edge(int e)         { return G.edge(e);        }
+        public int outdegree(int v)     { return G.outdegree(v);   }
+        public boolean hasEdge(int e)   { return G.hasEdge(e);     }
+        public boolean hasVertex(int v) { return G.hasVertex(v);   }
+    }
+
+    /**
+     * Changes the bandwidth of the link under edge {@code e}, in both
+     * directions, and brings the maximum flow up to date.
+     *
+     * @param  e the edge number
+     * @param  bandwidth the new bandwidth
+     * @return the value of the new maximum flow
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     * @throws IllegalArgumentException if {@code bandwidth < 0}
+     */
+    public int setBandwidth(int e, int bandwidth) {
+        validateEdge(e);
+        if (bandwidth < 0) throw new IllegalArgumentException("bandwidth must be nonnegative");
+        int f = G.twin(e);
+        int old = this.bandwidth[e];
+        this.bandwidth[e] = bandwidth;
+        if (f != -1) this.bandwidth[f] = bandwidth;
+
+        // take the flow over the bandwidth off the link, then place it elsewhere
+        boolean repaired = false;
+        if (flow[e] > bandwidth) {
+            repair(e, flow[e] - bandwidth);
+            repaired = true;
+        }
+        if (f != -1 && flow[f] > bandwidth) {
+            repair(f, flow[f] - bandwidth);
+            repaired = true;
+        }
+
+        // a link the flow still fits under leaves the flow and the cut as they are,
+        // unless a higher bandwidth opens a residual edge across the cut
+        if (repaired || bandwidth > old && maxflow.inCut(G.from(e)) != maxflow.inCut(G.to(e))) {
+            maxflow.resume(network, s, t, value);
+            value = maxflow.value();
+        }
+        return value;
+    }
+
+    // remove d units of flow from edge e, then rebalance both its endpoints
+    private void repair(int e, int d) {
+        int u = G.from(e), v = G.to(e);
+        addFlow(e, -d);
+
+        // u now has d units too many: around to v, or back to s or on to t
+        int surplus = u == s || u == t ? 0 : d, shortfall = v == s || v == t ? 0 : d;
+        while (surplus > 0) {
+            int moved = augment(u, v, surplus, true);
+            surplus -= moved;
+            if (reached == v) shortfall -= moved;
+        }
+
+        // v is still short by what did not reach it: draw it from s or t
+        while (shortfall > 0)
+            shortfall -= augment(v, -1, shortfall, false);
+    }
+
+    // augment up to d units along a shortest residual path from x to s, t or y,
+    // or (if forward is false) from s or t to x; return the amount moved
+    private int augment(int x, int y, int d, boolean forward) {
+        int head = 0, tail = 0, end = -1;
+        queue[tail++] = x;
+        edgeTo[x] = -2;
+        while (head < tail && end == -1) {
+            int v = queue[head++];
+            for (int e = G.begin(v); e < G.end(v) && end == -1; e++) {
+                int w = G.to(e);
+
+                // forward: residual edge v->w; backward: residual edge w->v, the twin of e
+                int r = forward ? e : G.twin(e);
+                if (edgeTo[w] != -1 || r == -1 || !G.hasEdge(e) || residualCapacity(r) == 0) continue;
+                edgeTo[w] = r;
+                if (w == s || w == t || w == y) end = w;
+                else queue[tail++] = w;
+            }
+        }
+        if (end == -1) {
+            clear(tail, -1);
+            throw new IllegalStateException("no residual path to rebalance vertex " + x);
+        }
+        reached = end;
+
+        int bottle = d;
+        for (int w = end; w != x; w = forward ? G.from(edgeTo[w]) : G.to(edgeTo[w]))
+            bottle = Math.min(bottle, residualCapacity(edgeTo[w]));
+        for (int w = end; w != x; w = forward ? G.from(edgeTo[w]) : G.to(edgeTo[w]))
+            addFlow(edgeTo[w], bottle);
+        clear(tail, end);
+        return bottle;
+    }
+
+    // reset edgeTo for the vertices the last search queued and the one it ended at,
+    // so a repair path costs only what it searched
+    private void clear(int tail, int end) {
+        for (int i = 0; i < tail; i++)
+            edgeTo[queue[i]] = -1;
+        if (end != -1) edgeTo[end] = -1;
+    }
+
+    // add d to the flow on e and keep the net flow into t up to date
+    private void addFlow(int e, int d) {
+        flow[e] += d;
+        if (G.twin(e) != -1) flow[G.twin(e)] -= d;
+        if (G.to(e) == t)   value += d;
+        if (G.from(e) == t) value -= d;
+    }
+
+    private int residualCapacity(int e) {
+        return bandwidth[e] - flow[e];
+    }
+
+    /**
+     * Returns the value of the maximum flow.
+     *
+     * @return the value of the maximum flow
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * Returns the flow along edge {@code e} in the current maximum flow.
+     *
+     * @param  e the edge number
+     * @return the flow along edge {@code e}; negative if the flow over its
+     *         link runs the other way
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public int flow(int e) {
+        validateEdge(e);
+        return flow[e];
+    }
+
+    /**
+     * Returns the current bandwidth of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the bandwidth of edge {@code e}, as last set
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public int bandwidth(int e) {
+        validateEdge(e);
+        return bandwidth[e];
+    }
+
+    /**
+     * Returns true if the specified vertex is on the {@code s} side of the
+     * current mincut.
+     *
+     * @param  v vertex
+     * @return {@code true} if vertex {@code v} is on the {@code s} side of the mincut;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean inCut(int v) {
+        return maxflow.inCut(v);
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= e < E}
+    private void validateEdge(int e) {
+        if (e < 0 || e >= flow.length)
+            throw new IllegalArgumentException("edge " + e + " is not between 0 and " + (flow.length-1));
+    }
+
+    /**
+     * Unit tests the {@code IncrementalMaxFlow} data type by applying the
+     * bandwidth changes read from standard input.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        CSRDigraph H = G.freeze();
+        int s = Integer.parseInt(args[1]), t = Integer.parseInt(args[2]);
+        IncrementalMaxFlow maxflow = new IncrementalMaxFlow(H, s, t);
+        StdOut.println("Max flow value = " + maxflow.value());
+
+        // an edge over each link
+        int[] edgeOf = new int[G.E()];
+        for (int e = 0; e < H.E(); e++)
+            edgeOf[H.link(e)] = e;
+        while (!StdIn.isEmpty()) {
+            int id = StdIn.readInt(), bandwidth = StdIn.readInt();
+            StdOut.println("link " + id + " at " + bandwidth + ": max flow value = "
+                           + maxflow.setBandwidth(edgeOf[id], bandwidth));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/******************************************************************************
+ *  Compilation:  javac IndexedDigraph.java
+ *  Execution:    none
+ *  Dependencies: Edge.java
+ *
+ *  The edge-numbered digraph interface the graph algorithms run on.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code IndexedDigraph} interface is the view of an edge-weighted
+ *  digraph that {@link DijkstraSP}, {@link BreadthFirstPaths},
+ *  {@link FordFulkerson}, {@link LazyPrimMST} and {@link Biconnected}
+ *  iterate over. Vertices are named 0 through <em>V</em> - 1 and directed
+ *  edges 0 through <em>E</em> - 1; the edges incident from vertex {@code v}
+ *  are numbered {@code begin(v)} through {@code end(v) - 1}.
+ *  <p>
+ *  {@link CSRDigraph} implements it with on-heap arrays and
+ *  {@link MappedDigraph} with memory-mapped files; {@link FilteredDigraph}
+ *  and {@link MaskedDigraph} are views of another digraph that hide some of
+ *  its links or vertices.
+ *
+ *  @author Daniel O'Neill
+ */
+public interface IndexedDigraph {
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    int V();
+
+    /**
+     * Returns the number of directed edges. Every link of an undirected
+     * topology counts twice, once in each direction.
+     *
+     * @return the number of directed edges
+     */
+    int E();
+
+    /**
+     * Returns the number of the first edge incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of the first edge incident from vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    int begin(int v);
+
+    /**
+     * Returns one more than the number of the last edge incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return one more than the number of the last edge incident from vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    int end(int v);
+
+    /**
+     * Returns the number of directed edges incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the outdegree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    int outdegree(int v);
+
+    /**
+     * Returns true if edge {@code e} is part of this digraph. Views such as
+     * {@link FilteredDigraph} hide edges without renumbering the rest, so
+     * the algorithms skip every edge {@code e} in {@code begin(v)} through
+     * {@code end(v) - 1} for which this returns false. Both directions of a
+     * link are always present or absent together.
+     *
+     * @param  e the edge number
+     * @return {@code true} if edge {@code e} is present; {@code false} otherwise
+     */
+    default boolean hasEdge(int e) {
+        return true;
+    }
+
+    /**
+     * Returns true if vertex {@code v} is part of this digraph. Views such as
+     * {@link MaskedDigraph} remove vertices without renumbering the rest;
+     * a removed vertex has no edges and the algorithms never start a search
+     * from it.
+     *
+     * @param  v the vertex
+     * @return {@code true} if vertex {@code v} is present; {@code false} otherwise
+     */
+    default boolean hasVertex(int v) {
+        return true;
+    }
+
+    /**
+     * Returns the source vertex of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the source vertex of edge {@code e}
+     */
+    int from(int e);
+
+    /**
+     * Returns the target vertex of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the target vertex of edge {@code e}
+     */
+    int to(int e);
+
+    /**
+     * Returns the weight (latency) of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the weight of edge {@code e}
+     */
+    double weight(int e);
+
+    /**
+     * Returns the bandwidth of edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the bandwidth of edge {@code e}
+     */
+    int bandwidth(int e);
+
+    /**
+     * Returns the edge running in the opposite direction over the same link
+     * as edge {@code e}.
+     *
+     * @param  e the edge number
+     * @return the opposite edge of {@code e}, or -1 if {@code e} has none
+     */
+    int twin(int e);
+
+    /**
+     * Returns the edge id of the link that edge {@code e} runs over.
+     *
+     * @param  e the edge number
+     * @return the edge id of the link under edge {@code e}
+     */
+    int link(int e);
+
+    /**
+     * Returns an {@link Edge} view of edge {@code e}, for reporting.
+     *
+     * @param  e the edge number
+     * @return an {@code Edge} directed from {@code from(e)} to {@code to(e)}
+     */
+    Edge edge(int e);
+}
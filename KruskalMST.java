@@ -0,0 +1,208 @@
+/******************************************************************************
+ *  Compilation:  javac KruskalMST.java
+ *  Execution:    java  KruskalMST filename.txt
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java Edge.java Queue.java
+ *                UF.java In.java StdOut.java
+ *
+ *  Compute a minimum spanning forest using Kruskal's algorithm, with the
+ *  links sorted up front by a parallel sort of primitive keys.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code KruskalMST} class represents a data type for computing a
+ *  <em>minimum spanning tree</em> in an edge-weighted graph.
+ *  The edge weights can be positive, zero, or negative and need not
+ *  be distinct. If the graph is not connected, it computes a <em>minimum
+ *  spanning forest</em>, which is the union of minimum spanning trees
+ *  in each connected component. The {@code weight()} method returns the
+ *  weight of a minimum spanning tree and the {@code edges()} method
+ *  returns its edges, in increasing order of weight.
+ *  <p>
+ *  This implementation uses <em>Kruskal's algorithm</em> and the
+ *  union-find data type. Each link is taken once, by the lower numbered of
+ *  its two edges, and the links are sorted by weight, with ties broken by
+ *  link number, before any is looked at. There is no heap: the sort is
+ *  {@link Arrays#parallelSort} of primitive arrays, first of the weights
+ *  and then of the links packed with their weight's rank into a
+ *  {@code long}, and the scan that follows walks the sorted array once.
+ *  <p>
+ *  The constructor takes time proportional to <em>E</em> log <em>E</em>
+ *  and extra space (not including the graph) proportional to <em>E</em>,
+ *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
+ *  Afterwards, the {@code weight()} method takes constant time
+ *  and the {@code edges()} method takes time proportional to <em>V</em>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *  For alternate implementations, see {@link FilterKruskalMST},
+ *  {@link PrimMST}, and {@link BoruvkaMST}.
+ *
+ *  @author Robert Sedgewick
+ *  @author Kevin Wayne
+ */
+public class KruskalMST {
+    private double weight;                        // weight of MST
+    private Queue<Edge> mst = new Queue<Edge>();  // edges in MST
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
+     * @param G the edge-weighted graph
+     */
+    public KruskalMST(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-numbered graph.
+     * @param G the edge-weighted graph
+     */
+    public KruskalMST(IndexedDigraph G) {
+        int[] edge = links(G);
+        double[] weight = weights(G, edge);
+        int[] order = new int[edge.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        sort(order, 0, order.length, weight);
+
+        // run Kruskal's algorithm
+        UF uf = new UF(G.V());
+        for (int i = 0; i < order.length && mst.size() < G.V() - 1; i++) {
+            int e = edge[order[i]];
+            int v = G.from(e), w = G.to(e);
+            if (!uf.connected(v, w)) { // v-w does not create a cycle
+                uf.union(v, w);        // merge v and w components
+                mst.enqueue(G.edge(e));  // add edge e to mst
+                this.weight += weight[order[i]];
+            }
+        }
+
+        // check optimality conditions
+        assert check(G);
+    }
+
+    // the lower numbered edge of each present link, by link number
+    static int[] links(IndexedDigraph G) {
+        int n = 0;
+        int[] edge = new int[G.E()];
+        for (int e = 0; e < G.E(); e++) {
+            int f = G.twin(e);
+            if (G.hasEdge(e) && (f == -1 || e < f)) edge[n++] = e;
+        }
+        return Arrays.copyOf(edge, n);
+    }
+
+    // the weight of each link
+    static double[] weights(IndexedDigraph G, int[] edge) {
+        double[] weight = new double[edge.length];
+        Arrays.parallelSetAll(weight, i -> G.weight(edge[i]));
+        return weight;
+    }
+
+    // sort the link numbers a[lo..hi) by weight, breaking ties by link number:
+    // sort the weights, then sort each link packed under the rank of its weight
+    static void sort(int[] a, int lo, int hi, double[] weight) {
+        double[] sorted = new double[hi - lo];
+        Arrays.parallelSetAll(sorted, i -> weight[a[lo + i]]);
+        Arrays.parallelSort(sorted);
+
+        // equal weights find the same position, so they share a rank
+        long[] keys = new long[hi - lo];
+        Arrays.parallelSetAll(keys, i -> (long) Arrays.binarySearch(sorted, weight[a[lo + i]]) << 32 | a[lo + i]);
+        Arrays.parallelSort(keys);
+        for (int i = 0; i < keys.length; i++)
+            a[lo + i] = (int) keys[i];
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges, in increasing order of weight
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // check optimality conditions (takes time proportional to E V lg* V)
+    private boolean check(IndexedDigraph G) {
+
+        // check total weight
+        double total = 0.0;
+        for (Edge e : edges()) {
+            total += e.weight();
+        }
+        if (Math.abs(total - weight()) > 1E-12 * Math.max(1.0, Math.abs(total))) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", total, weight());
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (Edge e : edges()) {
+            int v = e.from(), w = e.to();
+            if (uf.connected(v, w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (int e = 0; e < G.E(); e++) {
+            if (G.hasEdge(e) && !uf.connected(G.from(e), G.to(e))) {
+                System.err.println("Not a spanning forest");
+                return false;
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        for (Edge e : edges()) {
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (Edge f : mst) {
+                if (f != e) uf.union(f.from(), f.to());
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (int f = 0; f < G.E(); f++) {
+                int x = G.from(f), y = G.to(f);
+                if (G.hasEdge(f) && !uf.connected(x, y)) {
+                    if (G.weight(f) < e.weight()) {
+                        System.err.println("Edge " + G.edge(f) + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code KruskalMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        KruskalMST mst = new KruskalMST(G);
+        for (Edge e : mst.edges()) {
+            StdOut.println(e.from() + "-" + e.to() + " " + e.weight());
+        }
+        StdOut.printf("%.5f\n", mst.weight());
+    }
+}
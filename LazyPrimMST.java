@@ -2,7 +2,7 @@
  *  Compilation:  javac LazyPrimMST.java
  *  Execution:    java LazyPrimMST filename.txt
  *  Dependencies: EdgeWeightedGraph.java Edge.java Queue.java
- *                MinPQ.java UF.java In.java StdOut.java
+ *                DoubleIndexMinPQ.java UF.java In.java StdOut.java
  *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
  *                http://algs4.cs.princeton.edu/43mst/mediumEWG.txt
  *                http://algs4.cs.princeton.edu/43mst/largeEWG.txt
@@ -50,7 +50,8 @@
  *  returns its edges.
  *  <p>
  *  This implementation uses a lazy version of <em>Prim's algorithm</em>
- *  with a binary heap of edges.
+ *  with a 4-ary heap, {@link DoubleIndexMinPQ}, of edge numbers from an
+ *  {@link IndexedDigraph}.
  *  The constructor takes time proportional to <em>E</em> log <em>E</em>
  *  and extra space (not including the graph) proportional to <em>E</em>,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
@@ -67,48 +68,57 @@
  *  @author Kevin Wayne
  */
 public class LazyPrimMST {
-	private int maxN = 20;
-    private int weight;       // total weight of MST
+    private double weight;    // total weight of MST
     private Queue<Edge> mst;     // edges in the MST
     private boolean[] marked;    // marked[v] = true if v on tree
-    private IndexMinPQ<Edge> pq;      // edges with one endpoint in tree
+    private DoubleIndexMinPQ pq;      // numbers of edges with one endpoint in tree, keyed by weight
 
     /**
      * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
      * @param G the edge-weighted graph
      */
     public LazyPrimMST(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-numbered graph.
+     * @param G the edge-weighted graph
+     */
+    public LazyPrimMST(IndexedDigraph G) {
         mst = new Queue<Edge>();
-        pq = new IndexMinPQ<Edge>(maxN);
+        pq = new DoubleIndexMinPQ(G.E());
         marked = new boolean[G.V()];
-        for (int v = 0; v < G.V(); v++)     // run Prim from all vertices to
-            if (!marked[v]) prim(G, v);     // get a minimum spanning forest
+        for (int v = 0; v < G.V(); v++)     // run Prim from all present vertices
+            if (!marked[v] && G.hasVertex(v))
+                prim(G, v);                 // to get a minimum spanning forest
 
         // check optimality conditions
         assert check(G);
     }
 
     // run Prim's algorithm
-    private void prim(EdgeWeightedDigraph G, int s) {
+    private void prim(IndexedDigraph G, int s) {
         scan(G, s);
         while (!pq.isEmpty()) {                        // better to stop when mst has V-1 edges
-            Edge e = pq.delMinimum();                      // smallest edge on pq
-            int v = e.from(), w = e.to();        // two endpoints
+            int e = pq.delMin();                       // smallest edge on pq
+            int v = G.from(e), w = G.to(e);            // two endpoints
             assert marked[v] || marked[w];
             if (marked[v] && marked[w]) continue;      // lazy, both v and w already scanned
-            mst.enqueue(e);                            // add e to MST
-            weight += e.weight();
+            mst.enqueue(G.edge(e));                    // add e to MST
+            weight += G.weight(e);
             if (!marked[v]) scan(G, v);               // v becomes part of tree
             if (!marked[w]) scan(G, w);               // w becomes part of tree
         }
     }
 
     // add all edges e incident to v onto pq if the other endpoint has not yet been scanned
-    private void scan(EdgeWeightedDigraph G, int v) {
+    // each edge is numbered uniquely, so it is inserted at most once
+    private void scan(IndexedDigraph G, int v) {
         assert !marked[v];
         marked[v] = true;
-        for (Edge e : G.adj(v))
-            if (!marked[e.to()]) pq.insert(e);
+        for (int e = G.begin(v); e < G.end(v); e++)
+            if (G.hasEdge(e) && !marked[G.to(e)]) pq.insert(e, G.weight(e));
     }
         
     /**
@@ -129,14 +139,14 @@ public class LazyPrimMST {
     }
 
     // check optimality conditions (takes time proportional to E V lg* V)
-    private boolean check(EdgeWeightedDigraph G) {
+    private boolean check(IndexedDigraph G) {
 
         // check weight
-        int totalWeight = 0;
+        double totalWeight = 0.0;
         for (Edge e : edges()) {
             totalWeight += e.weight();
         }
-        if (Math.abs(totalWeight - weight()) > 0) {
+        if (Math.abs(totalWeight - weight()) > 1E-12 * Math.max(1.0, Math.abs(totalWeight))) {
             System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight());
             return false;
         }
@@ -153,9 +163,9 @@ public class LazyPrimMST {
         }
 
         // check that it is a spanning forest
-        for (Edge e : G.edges()) {
-            int v = e.to(), w = e.from();
-            if (!uf.connected(v, w)) {
+        for (int e = 0; e < G.E(); e++) {
+            int v = G.to(e), w = G.from(e);
+            if (G.hasEdge(e) && !uf.connected(v, w)) {
                 System.err.println("Not a spanning forest");
                 return false;
             }
@@ -172,11 +182,11 @@ public class LazyPrimMST {
             }
 
             // check that e is min weight edge in crossing cut
-            for (Edge f : G.edges()) {
-                int x = f.from(), y = f.to();
-                if (!uf.connected(x, y)) {
-                    if (f.weight() < e.weight()) {
-                        System.err.println("Edge " + f + " violates cut optimality conditions");
+            for (int f = 0; f < G.E(); f++) {
+                int x = G.from(f), y = G.to(f);
+                if (G.hasEdge(f) && !uf.connected(x, y)) {
+                    if (G.weight(f) < e.weight()) {
+                        System.err.println("Edge " + G.edge(f) + " violates cut optimality conditions");
                         return false;
                     }
                 }
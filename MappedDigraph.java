@@ -0,0 +1,294 @@
+/******************************************************************************
+ *  Compilation:  javac MappedDigraph.java
+ *  Execution:    java MappedDigraph topology.snap topology.csr
+ *  Dependencies: IndexedDigraph.java GraphSnapshot.java EdgeTable.java EdgeRows.java
+ *                Edge.java StdOut.java
+ *
+ *  An edge-weighted digraph in compressed sparse row form that lives in a
+ *  memory-mapped file instead of on the Java heap.
+ *
+ *  % java MappedDigraph topology.snap topology.csr
+ *  mapped 50 vertices and 200 edges from topology.csr
+ *
+ ******************************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  The {@code MappedDigraph} class represents an immutable edge-weighted
+ *  digraph whose compressed sparse row arrays are memory-mapped from a file,
+ *  so the size of the graph is bounded by the address space rather than by
+ *  the heap, and the garbage collector never sees the edges.
+ *  <p>
+ *  The file is built once from a {@link GraphSnapshot} with {@code build()};
+ *  only two vertex-indexed arrays are allocated on the heap while doing so.
+ *  It holds, little-endian: a header of six ints (magic number
+ *  {@code 0x4E414353} "NACS", version, <em>V</em>, <em>E</em>, number of
+ *  links <em>n</em>, padding), then the columns weight (<em>E</em> doubles),
+ *  offset (<em>V</em>+1 ints), from, to, bandwidth, twin and link
+ *  (<em>E</em> ints each), then the per-link columns length and capacity
+ *  (<em>n</em> ints each) and medium (<em>n</em> bytes). Each column is mapped in chunks of 2<sup>27</sup>
+ *  elements to stay under the 2 GB limit of a single mapping.
+ *  <p>
+ *  It implements {@link IndexedDigraph}, so every algorithm that runs on a
+ *  {@link CSRDigraph} runs on it unchanged. The {@link Edge} views it returns
+ *  read the per-link columns in place, so their {@code id()} is the link id.
+ *  All operations take constant time.
+ *
+ *  @author Daniel O'Neill
+ */
+public class MappedDigraph implements IndexedDigraph {
+    private static final int MAGIC   = 0x4E414353;    // "NACS"
+    private static final int VERSION = 2;
+    private static final int HEADER  = 6 * 4;         // bytes in the header
+    private static final int SHIFT   = 27;            // log2 of elements per chunk
+    private static final int MASK    = (1 << SHIFT) - 1;
+
+    private final int V;                    // number of vertices
+    private final int E;                    // number of directed edges
+    private final DoubleColumn weight;      // weight[e] = latency of edge e
+    private final IntColumn offset;         // edges incident from v are offset[v] .. offset[v+1]-1
+    private final IntColumn from;           // from[e] = source vertex of edge e
+    private final IntColumn to;             // to[e] = target vertex of edge e
+    private final IntColumn bandwidth;      // bandwidth[e] = capacity of edge e
+    private final IntColumn twin;           // twin[e] = opposite edge of the same link
+    private final IntColumn link;           // link[e] = edge id of the link e runs over
+    private final IntColumn length;         // length[id] = cable length of link id
+    private final IntColumn capacity;       // capacity[id] = bandwidth of link id
+    private final ByteColumn medium;        // medium[id] = medium code of link id
+    private final EdgeRows links = new Links();
+
+    /**
+     * Maps the digraph stored in the named file, which must have been
+     * written by {@code build()}.
+     *
+     * @param  file the name of the file
+     * @throws IllegalArgumentException if the file cannot be read or is not a mapped digraph
+     */
+    public MappedDigraph(String file) {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER) throw new IllegalArgumentException(file + " is not a mapped digraph");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC)   throw new IllegalArgumentException(file + " is not a mapped digraph");
+            if (header.getInt() != VERSION) throw new IllegalArgumentException(file + " has an unsupported version");
+            V = header.getInt();
+            E = header.getInt();
+            int n = header.getInt();
+            if (V < 0 || E < 0 || n < 0 || channel.size() != size(V, E, n))
+                throw new IllegalArgumentException(file + " is truncated or corrupt");
+
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+            long pos = HEADER;
+            weight    = new DoubleColumn(channel, mode, pos, E);  pos += 8L * E;
+            offset    = new IntColumn(channel, mode, pos, V+1L);   pos += 4L * (V+1);
+            from      = new IntColumn(channel, mode, pos, E);     pos += 4L * E;
+            to        = new IntColumn(channel, mode, pos, E);     pos += 4L * E;
+            bandwidth = new IntColumn(channel, mode, pos, E);     pos += 4L * E;
+            twin      = new IntColumn(channel, mode, pos, E);     pos += 4L * E;
+            link      = new IntColumn(channel, mode, pos, E);     pos += 4L * E;
+            length    = new IntColumn(channel, mode, pos, n);     pos += 4L * n;
+            capacity  = new IntColumn(channel, mode, pos, n);     pos += 4L * n;
+            medium    = new ByteColumn(channel, mode, pos, n);
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not open " + file, ioe);
+        }
+    }
+
+    // number of bytes in a file holding V vertices, E edges and n links
+    private static long size(int V, int E, int n) {
+        return HEADER + 8L * E + 4L * (V+1) + 5 * 4L * E + 2 * 4L * n + n;
+    }
+
+    /**
+     * Builds a mapped digraph file from a graph snapshot, with every link
+     * stored as a pair of opposite directed edges. The edges are written
+     * straight into the mapped output, so the heap only holds two arrays
+     * of <em>V</em> ints. Takes time proportional to <em>V</em> + <em>E</em>.
+     *
+     * @param  snapshot the name of a file written by {@link GraphSnapshot#write}
+     * @param  file the name of the file to create, replacing it if it exists
+     * @throws IllegalArgumentException if either file cannot be opened
+     * @throws IllegalArgumentException if the snapshot is not valid
+     */
+    public static void build(String snapshot, String file) {
+        ByteBuffer in = GraphSnapshot.map(snapshot);
+        int V = in.getInt(8);
+        int n = in.getInt(12);
+        if (2L * n > Integer.MAX_VALUE) throw new IllegalArgumentException("too many links");
+        int E = 2*n;
+        int fromAt = 16, toAt = fromAt + 4*n, mediumAt = toAt + 4*n;
+        int bandwidthAt = mediumAt + n, lengthAt = bandwidthAt + 4*n;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(E).putInt(n).putInt(0).flip();
+            while (header.hasRemaining()) channel.write(header, HEADER - header.remaining());
+
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_WRITE;
+            long pos = HEADER;
+            DoubleColumn weight = new DoubleColumn(channel, mode, pos, E);     pos += 8L * E;
+            IntColumn offset    = new IntColumn(channel, mode, pos, V+1L);     pos += 4L * (V+1);
+            IntColumn from      = new IntColumn(channel, mode, pos, E);        pos += 4L * E;
+            IntColumn to        = new IntColumn(channel, mode, pos, E);        pos += 4L * E;
+            IntColumn bandwidth = new IntColumn(channel, mode, pos, E);        pos += 4L * E;
+            IntColumn twin      = new IntColumn(channel, mode, pos, E);        pos += 4L * E;
+            IntColumn link      = new IntColumn(channel, mode, pos, E);        pos += 4L * E;
+            IntColumn length    = new IntColumn(channel, mode, pos, n);        pos += 4L * n;
+            IntColumn capacity  = new IntColumn(channel, mode, pos, n);        pos += 4L * n;
+            ByteColumn medium   = new ByteColumn(channel, mode, pos, n);
+
+            // degree count and prefix sum give the start of every adjacency range
+            int[] next = new int[V];
+            for (int id = 0; id < n; id++) {
+                int v = in.getInt(fromAt + 4*id), w = in.getInt(toAt + 4*id);
+                if (v < 0 || v >= V || w < 0 || w >= V)
+                    throw new IllegalArgumentException("link " + id + " has an endpoint out of range");
+                next[v]++;
+                next[w]++;
+            }
+            int sum = 0;
+            for (int v = 0; v < V; v++) {
+                offset.put(v, sum);
+                int d = next[v];
+                next[v] = sum;
+                sum += d;
+            }
+            offset.put(V, sum);
+
+            for (int id = 0; id < n; id++) {
+                int v = in.getInt(fromAt + 4*id), w = in.getInt(toAt + 4*id);
+                byte m = in.get(mediumAt + id);
+                int len = in.getInt(lengthAt + 4*id);
+                int bw = in.getInt(bandwidthAt + 4*id);
+                double latency = (double) len / (double) EdgeTable.speed(m);
+                int i = next[v]++;
+                int j = next[w]++;
+                from.put(i, v);  to.put(i, w);  weight.put(i, latency);  bandwidth.put(i, bw);  twin.put(i, j);  link.put(i, id);
+                from.put(j, w);  to.put(j, v);  weight.put(j, latency);  bandwidth.put(j, bw);  twin.put(j, i);  link.put(j, id);
+                length.put(id, len);
+                capacity.put(id, bw);
+                medium.put(id, m);
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not write " + file, ioe);
+        }
+    }
+
+    public int V() {
+        return V;
+    }
+
+    public int E() {
+        return E;
+    }
+
+    public int begin(int v) {
+        validateVertex(v);
+        return offset.get(v);
+    }
+
+    public int end(int v) {
+        validateVertex(v);
+        return offset.get(v+1);
+    }
+
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offset.get(v+1) - offset.get(v);
+    }
+
+    public int from(int e)         { return from.get(e);      }
+    public int to(int e)           { return to.get(e);        }
+    public double weight(int e)    { return weight.get(e);    }
+    public int bandwidth(int e)    { return bandwidth.get(e); }
+    public int twin(int e)         { return twin.get(e);      }
+    public int link(int e)         { return link.get(e);      }
+
+    public Edge edge(int e) {
+        return new Edge(links, link.get(e), from.get(e), to.get(e));
+    }
+
+    // the per-link columns, as the rows the Edge views read
+    private class Links implements EdgeRows {
+        public byte medium(int id)      { return medium.get(id);   }
+        public int bandwidth(int id)    { return capacity.get(id); }
+        public int length(int id)       { return length.get(id);   }
+        public double latency(int id)   { return (double) length.get(id) / (double) EdgeTable.speed(medium.get(id)); }
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+
+   /***************************************************************************
+    * Columns mapped in chunks of 2^SHIFT elements.
+    ***************************************************************************/
+    private static class IntColumn {
+        private final IntBuffer[] chunks;
+
+        IntColumn(FileChannel channel, FileChannel.MapMode mode, long pos, long count) throws IOException {
+            chunks = new IntBuffer[(int) ((count + MASK) >>> SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long size = Math.min(count - ((long) c << SHIFT), 1L << SHIFT);
+                chunks[c] = channel.map(mode, pos + 4L * ((long) c << SHIFT), 4L * size)
+                                   .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+        }
+        int get(int i)             { return chunks[i >>> SHIFT].get(i & MASK); }
+        void put(int i, int x)     { chunks[i >>> SHIFT].put(i & MASK, x);     }
+    }
+
+    private static class DoubleColumn {
+        private final DoubleBuffer[] chunks;
+
+        DoubleColumn(FileChannel channel, FileChannel.MapMode mode, long pos, long count) throws IOException {
+            chunks = new DoubleBuffer[(int) ((count + MASK) >>> SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long size = Math.min(count - ((long) c << SHIFT), 1L << SHIFT);
+                chunks[c] = channel.map(mode, pos + 8L * ((long) c << SHIFT), 8L * size)
+                                   .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+        }
+        double get(int i)          { return chunks[i >>> SHIFT].get(i & MASK); }
+        void put(int i, double x)  { chunks[i >>> SHIFT].put(i & MASK, x);     }
+    }
+
+    private static class ByteColumn {
+        private final ByteBuffer[] chunks;
+
+        ByteColumn(FileChannel channel, FileChannel.MapMode mode, long pos, long count) throws IOException {
+            chunks = new ByteBuffer[(int) ((count + MASK) >>> SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long size = Math.min(count - ((long) c << SHIFT), 1L << SHIFT);
+                chunks[c] = channel.map(mode, pos + ((long) c << SHIFT), size);
+            }
+        }
+        byte get(int i)            { return chunks[i >>> SHIFT].get(i & MASK); }
+        void put(int i, byte x)    { chunks[i >>> SHIFT].put(i & MASK, x);     }
+    }
+
+
+    /**
+     * Builds a mapped digraph file from a snapshot and reports its size.
+     *
+     * @param args the snapshot file and the mapped digraph file to write
+     */
+    public static void main(String[] args) {
+        build(args[0], args[1]);
+        MappedDigraph G = new MappedDigraph(args[1]);
+        StdOut.println("mapped " + G.V() + " vertices and " + G.E() + " edges from " + args[1]);
+    }
+}
@@ -0,0 +1,195 @@
+/******************************************************************************
+ *  Compilation:  javac MaskedDigraph.java
+ *  Execution:    java MaskedDigraph topology.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java Biconnected.java
+ *                In.java StdOut.java
+ *
+ *  A view of an edge-weighted digraph with some vertices and links marked
+ *  as failed. Failing or restoring one takes constant time and nothing is
+ *  renumbered, so the test client runs every single-vertex failure
+ *  scenario on one view.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code MaskedDigraph} class is a view of an {@link IndexedDigraph}
+ *  in which vertices and links can be removed and restored. It keeps one bit
+ *  per vertex and one bit per link and shares everything else with the
+ *  underlying digraph, so vertices and edges keep their numbers: a removed
+ *  vertex is still counted by {@code V()} but {@code hasVertex()} returns
+ *  false for it, and {@code hasEdge()} returns false for every edge over a
+ *  removed link or incident to a removed vertex. The algorithms never start
+ *  a search from a removed vertex and never follow a hidden edge.
+ *  <p>
+ *  Removing or restoring a vertex or link takes constant time, so a failure
+ *  scenario is set up and torn down without copying the graph. A view is not
+ *  safe to modify while another thread is reading it; give each thread its
+ *  own view of the same underlying digraph instead, which costs
+ *  (<em>V</em> + <em>E</em>/2) / 8 bytes.
+ *
+ *  @author Daniel O'Neill
+ */
+public class MaskedDigraph implements IndexedDigraph {
+    private final IndexedDigraph G;    // the underlying digraph
+    private final long[] vertexGone;   // bit v is set iff vertex v is removed
+    private final long[] linkGone;     // bit id is set iff link id is removed
+    private final int links;           // number of links in G
+
+    /**
+     * Initializes a view of the frozen form of {@code G} with nothing removed.
+     *
+     * @param  G the edge-weighted digraph
+     */
+    public MaskedDigraph(EdgeWeightedDigraph G) {
+        this(G.freeze(), G.E());
+    }
+
+    /**
+     * Initializes a view of {@code G}, whose links have edge ids 0 through
+     * {@code links} - 1, with nothing removed. Edges hidden by {@code G} stay hidden.
+     *
+     * @param  G the digraph
+     * @param  links the number of links in {@code G}
+     * @throws IllegalArgumentException if {@code links < 0}
+     */
+    public MaskedDigraph(IndexedDigraph G, int links) {
+        if (links < 0) throw new IllegalArgumentException("number of links must be nonnegative");
+        this.G = G;
+        this.links = links;
+        this.vertexGone = new long[(G.V() + 63) >>> 6];
+        this.linkGone = new long[(links + 63) >>> 6];
+    }
+
+    /**
+     * Removes vertex {@code v} and with it every edge incident to {@code v}.
+     *
+     * @param  v the vertex
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public void removeVertex(int v) {
+        validateVertex(v);
+        vertexGone[v >>> 6] |= 1L << v;
+    }
+
+    /**
+     * Restores vertex {@code v}, and the edges incident to it whose other
+     * endpoint and link are present.
+     *
+     * @param  v the vertex
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public void restoreVertex(int v) {
+        validateVertex(v);
+        vertexGone[v >>> 6] &= ~(1L << v);
+    }
+
+    /**
+     * Removes the link with the given edge id, in both directions.
+     *
+     * @param  id the edge id
+     * @throws IllegalArgumentException unless {@code 0 <= id < links}
+     */
+    public void removeLink(int id) {
+        validateLink(id);
+        linkGone[id >>> 6] |= 1L << id;
+    }
+
+    /**
+     * Restores the link with the given edge id.
+     *
+     * @param  id the edge id
+     * @throws IllegalArgumentException unless {@code 0 <= id < links}
+     */
+    public void restoreLink(int id) {
+        validateLink(id);
+        linkGone[id >>> 6] &= ~(1L << id);
+    }
+
+    /**
+     * Restores every removed vertex and link.
+     */
+    public void restoreAll() {
+        Arrays.fill(vertexGone, 0L);
+        Arrays.fill(linkGone, 0L);
+    }
+
+    /**
+     * Returns true if vertex {@code v} has not been removed.
+     *
+     * @param  v the vertex
+     * @return {@code true} if vertex {@code v} is present; {@code false} otherwise
+     */
+    public boolean hasVertex(int v) {
+        return (vertexGone[v >>> 6] & (1L << v)) == 0 && G.hasVertex(v);
+    }
+
+    /**
+     * Returns true if edge {@code e}, its link and both its endpoints are present.
+     *
+     * @param  e the edge number
+     * @return {@code true} if edge {@code e} is present; {@code false} otherwise
+     */
+    public boolean hasEdge(int e) {
+        int id = G.link(e);
+        return (linkGone[id >>> 6] & (1L << id)) == 0
+            && hasVertex(G.from(e)) && hasVertex(G.to(e)) && G.hasEdge(e);
+    }
+
+    public int V()                 { return G.V();            }
+    public int E()                 { return G.E();            }
+    public int begin(int v)        { return G.begin(v);       }
+    public int end(int v)          { return G.end(v);         }
+    public int from(int e)         { return G.from(e);        }
+    public int to(int e)           { return G.to(e);          }
+    public double weight(int e)    { return G.weight(e);      }
+    public int bandwidth(int e)    { return G.bandwidth(e);   }
+    public int twin(int e)         { return G.twin(e);        }
+    public int link(int e)         { return G.link(e);        }
+    public Edge edge(int e)        { return G.edge(e);        }
+
+    /**
+     * Returns the number of edges in this view incident from vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of edges in this view incident from vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int outdegree(int v) {
+        int degree = 0;
+        for (int e = G.begin(v); e < G.end(v); e++)
+            if (hasEdge(e)) degree++;
+        return degree;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= G.V())
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (G.V()-1));
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= id < links}
+    private void validateLink(int id) {
+        if (id < 0 || id >= links)
+            throw new IllegalArgumentException("edge id " + id + " is out of range");
+    }
+
+    /**
+     * Unit tests the {@code MaskedDigraph} data type by printing every pair
+     * of vertices whose joint failure disconnects the topology.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        MaskedDigraph H = new MaskedDigraph(G);
+        for (int i = 0; i < G.V(); i++) {
+            H.removeVertex(i);
+            Biconnected bic = new Biconnected(H);
+            for (int v = i+1; v < G.V(); v++)
+                if (bic.isArticulation(v)) StdOut.println("vertices " + i + " " + v);
+            H.restoreVertex(i);
+        }
+    }
+}
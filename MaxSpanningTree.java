@@ -0,0 +1,214 @@
+/******************************************************************************
+ *  Compilation:  javac MaxSpanningTree.java
+ *  Execution:    java MaxSpanningTree topology.txt < pairs.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java KruskalMST.java
+ *                UF.java Queue.java Edge.java ParallelTopologyLoader.java
+ *                StdIn.java StdOut.java
+ *
+ *  Builds a maximum-bandwidth spanning forest, then answers the bottleneck
+ *  bandwidth of the widest path between each pair "u w" read from standard
+ *  input from the forest alone.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code MaxSpanningTree} class represents a <em>maximum spanning
+ *  forest</em> of a topology, with links weighted by bandwidth. The path
+ *  between two vertices in this forest is a <em>widest path</em> between
+ *  them in the topology: no path has a larger bottleneck, the smallest
+ *  bandwidth of any of its links. So the bottleneck bandwidth between every
+ *  pair of vertices is read off one tree, with no search per pair.
+ *  <p>
+ *  The forest is built the way {@link KruskalMST} builds one, with the
+ *  links sorted by decreasing bandwidth. Each tree is then rooted at its
+ *  lowest vertex and given jump pointers (Myers 1983) that carry the
+ *  smallest bandwidth under each pointer, as in {@link GomoryHuTree}.
+ *  <p>
+ *  The constructor takes time proportional to <em>E</em> log <em>E</em>
+ *  and extra space proportional to <em>V</em> + <em>E</em>. Afterwards,
+ *  the {@code bottleneck()} method takes time logarithmic in <em>V</em>
+ *  and the tree takes space proportional to <em>V</em>.
+ *
+ *  @author Daniel O'Neill
+ */
+public class MaxSpanningTree {
+    private final int V;
+    private final Queue<Edge> tree = new Queue<Edge>();   // links in the forest
+    private final int[] root;       // root of the tree containing v
+    private final int[] parent;     // parent of v in its tree; a root is its own parent
+    private final int[] capacity;   // bandwidth of the link from v to its parent
+    private final int[] depth;      // depth of v in its tree
+    private final int[] jump;       // jump pointer of v
+    private final int[] jumpMin;    // smallest bandwidth on the tree path from v up to jump[v]
+
+    /**
+     * Builds a maximum-bandwidth spanning forest of an edge-weighted graph.
+     *
+     * @param  G the edge-weighted graph
+     */
+    public MaxSpanningTree(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Builds a maximum-bandwidth spanning forest of an edge-numbered graph.
+     *
+     * @param  G the edge-weighted graph
+     */
+    public MaxSpanningTree(IndexedDigraph G) {
+        V = G.V();
+
+        // Kruskal's algorithm, widest links first
+        int[] edge = KruskalMST.links(G);
+        double[] width = new double[edge.length];
+        int[] order = new int[edge.length];
+        for (int i = 0; i < edge.length; i++) {
+            width[i] = -G.bandwidth(edge[i]);
+            order[i] = i;
+        }
+        KruskalMST.sort(order, 0, order.length, width);
+        boolean[] inTree = new boolean[G.E()];
+        UF uf = new UF(V);
+        for (int i = 0; i < order.length && tree.size() < V - 1; i++) {
+            int e = edge[order[i]];
+            int v = G.from(e), w = G.to(e);
+            if (!uf.connected(v, w)) {
+                uf.union(v, w);
+                tree.enqueue(G.edge(e));
+                inTree[e] = true;
+                if (G.twin(e) != -1) inTree[G.twin(e)] = true;
+            }
+        }
+
+        // root each tree and set depths and jump pointers, parents before children
+        root = new int[V];
+        parent = new int[V];
+        capacity = new int[V];
+        depth = new int[V];
+        jump = new int[V];
+        jumpMin = new int[V];
+        boolean[] marked = new boolean[V];
+        int[] queue = new int[V];
+        for (int s = 0; s < V; s++) {
+            if (marked[s]) continue;
+            marked[s] = true;
+            root[s] = parent[s] = jump[s] = s;
+            capacity[s] = jumpMin[s] = Integer.MAX_VALUE;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            while (head < tail) {
+                int p = queue[head++];
+                for (int e = G.begin(p); e < G.end(p); e++) {
+                    int v = G.to(e);
+                    if (!inTree[e] || marked[v]) continue;
+                    marked[v] = true;
+                    queue[tail++] = v;
+                    root[v] = s;
+                    parent[v] = p;
+                    capacity[v] = G.bandwidth(e);
+                    depth[v] = depth[p] + 1;
+                    int j = jump[p];
+                    if (p != s && depth[p] - depth[j] == depth[j] - depth[jump[j]]) {
+                        jump[v] = jump[j];
+                        jumpMin[v] = Math.min(capacity[v], Math.min(jumpMin[p], jumpMin[j]));
+                    }
+                    else {
+                        jump[v] = p;
+                        jumpMin[v] = capacity[v];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the bottleneck bandwidth of a widest path between vertices
+     * {@code u} and {@code w}: the smallest bandwidth on the tree path
+     * between them.
+     *
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return the largest bandwidth, over all paths from {@code u} to {@code w},
+     *         of the narrowest link on the path; 0 if there is no such path
+     * @throws IllegalArgumentException unless {@code 0 <= u < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code u == w}
+     */
+    public int bottleneck(int u, int w) {
+        validate(u);
+        validate(w);
+        if (u == w) throw new IllegalArgumentException("Source equals sink");
+        if (root[u] != root[w]) return 0;
+        int min = Integer.MAX_VALUE;
+        if (depth[u] < depth[w]) {
+            int x = u;
+            u = w;
+            w = x;
+        }
+        while (depth[u] > depth[w]) {
+            if (depth[jump[u]] >= depth[w]) {
+                min = Math.min(min, jumpMin[u]);
+                u = jump[u];
+            }
+            else {
+                min = Math.min(min, capacity[u]);
+                u = parent[u];
+            }
+        }
+        while (u != w) {
+            if (jump[u] != jump[w]) {
+                min = Math.min(min, Math.min(jumpMin[u], jumpMin[w]));
+                u = jump[u];
+                w = jump[w];
+            }
+            else {
+                min = Math.min(min, Math.min(capacity[u], capacity[w]));
+                u = parent[u];
+                w = parent[w];
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the links in the maximum spanning forest.
+     *
+     * @return the links in the forest, widest first
+     */
+    public Iterable<Edge> edges() {
+        return tree;
+    }
+
+    /**
+     * Returns the parent of vertex {@code v} in its tree.
+     *
+     * @param  v the vertex
+     * @return the parent of {@code v}; the root of each tree, its lowest
+     *         vertex, is its own parent
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int parent(int v) {
+        validate(v);
+        return parent[v];
+    }
+
+    // throw an IllegalArgumentException if v is outside prescibed range
+    private void validate(int v)  {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code MaxSpanningTree} data type by answering the
+     * pairs of vertices read from standard input.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = ParallelTopologyLoader.load(args[0]);
+        MaxSpanningTree mst = new MaxSpanningTree(G);
+        while (!StdIn.isEmpty()) {
+            int u = StdIn.readInt(), w = StdIn.readInt();
+            StdOut.println("Bottleneck bandwidth from " + u + " to " + w + " = " + mst.bottleneck(u, w) + " bit/s");
+        }
+    }
+}
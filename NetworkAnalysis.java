@@ -10,9 +10,17 @@ public class NetworkAnalysis{
 		NetworkAnalysis na = new NetworkAnalysis();
 		na.runUI(args[0]);
 	}
+	/*	Loads a topology, either a binary snapshot written by GraphSnapshot or a text file
+	*	Parameters: name of the file
+	*/
+	private EdgeWeightedDigraph load(String file){
+		if(GraphSnapshot.isSnapshot(file)) return GraphSnapshot.read(file);
+		return ParallelTopologyLoader.load(file);
+	}
 	public void runUI(String file){
-		In in = new In(file);
-        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);	
+        EdgeWeightedDigraph G = load(file);	
+		//built once, each query only resets the entries its own search touched
+		BidirectionalDijkstra latency = new BidirectionalDijkstra(G);
 		Scanner input = new Scanner(System.in);
 		int toVertex;
 		int fromVertex;
@@ -30,10 +38,9 @@ public class NetworkAnalysis{
 				fromVertex = input.nextInt();
 				toVertex = input.nextInt();
 				garbage = input.nextLine();	//collect new line nextInt fails to handle
-				DijkstraSP sp = new DijkstraSP(G, fromVertex);
 				System.out.println("Path:");
 				int min = INFINITY;
-				for(Edge e : sp.pathTo(toVertex)){
+				for(Edge e : latency.pathTo(fromVertex, toVertex)){
 					min = Math.min(min, e.bandwidth());
 					System.out.println("Edge from " + e.from() +" to " + e.to());
 				}
@@ -41,10 +48,10 @@ public class NetworkAnalysis{
 			}
 			//Determines if a graph is connected through copper only connections
 			else if(selection == 2){
-				//Gets copy of graph that is strictly copper connected
-				EdgeWeightedDigraph GCopy = new EdgeWeightedDigraph
-				BreadthFirstPaths bfs = new BreadthFirstPaths(GCopy, G);
-				//Calls bfs to visit all reachable vertices0);
+				//Gets a view of the graph that hides every non-copper link
+				FilteredDigraph copper = FilteredDigraph.medium(G, EdgeTable.COPPER);
+				BreadthFirstPaths bfs = new BreadthFirstPaths(copper, 0);
+				//Calls bfs to visit all reachable vertices
 				for (int v = 0; v < G.V(); v++){
 					//If any vertex is unvisitable 
 					if (!bfs.isVisited(v)){
@@ -56,18 +63,27 @@ public class NetworkAnalysis{
 			}
 			//Finds the max amount of data that can be transferred from one vertex to another
 			else if(selection == 3){
-				System.out.println("Please enter two vertices, separated by a space.");
+				System.out.println("Please enter two vertices, separated by a space "
+				+ "(follow them with \"ff\" to use Ford-Fulkerson or \"pr\" to use push-relabel instead of Dinic).");
 				fromVertex = input.nextInt();
 				toVertex = input.nextInt();
-				garbage = input.nextLine();	//collects new line
-				FordFulkerson ff = new FordFulkerson(G, fromVertex, toVertex);
-				System.out.println("Maximum Bandwidth " + ff.value() + " bit/s");
-				in = new In(file);
-				G = new EdgeWeightedDigraph(in);	//reset graph to reset flows
+				garbage = input.nextLine();	//collects new line, and the name of the algorithm if any
+				int max;
+				if(garbage.trim().equalsIgnoreCase("ff")){
+					max = new FordFulkerson(G, fromVertex, toVertex).value();
+				}
+				else if(garbage.trim().equalsIgnoreCase("pr")){
+					//only the value is needed, so the preflow is never turned back into a flow
+					max = new PushRelabel(G.freeze(), fromVertex, toVertex, true).value();
+				}
+				else{
+					max = new Dinic(G, fromVertex, toVertex).value();
+				}
+				System.out.println("Maximum Bandwidth " + max + " bit/s");
 			}
 			//Finds the minimum average latency spanning tree
 			else if(selection == 4){
-				LazyPrimMST lp = new LazyPrimMST(G);
+				PrimMST lp = new PrimMST(G);
 				System.out.println("0");	//path always starts at 0, call to e.to() only print next vertex
 				for(Edge e : lp.edges()){
 					System.out.println(e.to());
@@ -75,19 +91,14 @@ public class NetworkAnalysis{
 			}
 			//Determines whether a graph would remain connected if any two vertices should fail
 			else if(selection == 5){
-				EdgeWeightedDigraph F;
-				Biconnected bic;
-				int j;
+				//One triconnectivity pass finds, for every vertex i, the vertices that become
+				//articulation points once i fails, without removing anything
+				Triconnectivity tri = new Triconnectivity(G);
 				System.out.println("Pairs of vertices that could be eliminated to cause the network to fail: ");
 				for(int i = 0; i<G.V(); i++){
-					F = new EdgeWeightedDigraph(G, i);
-					bic = new Biconnected(F);
-					for (int v = 0; v < F.V(); v++){
-						j=v;
-						if(v>=i)j=v+1;
-						if (bic.isArticulation(v)) StdOut.println("vertices " + i + " " + j);
+					for (int j : tri.partners(i)){
+						StdOut.println("vertices " + i + " " + j);
 					}
-					G.fixEdges(G,i);
 				}
 			}
 			else if(selection == 6){
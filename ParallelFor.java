@@ -0,0 +1,76 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelFor.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Runs a loop body, or one task, on a fork/join pool and rethrows the
+ *  exception a worker threw as the caller's own.
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ *  The {@code ParallelFor} class provides static methods for fanning work
+ *  out over a given {@link ForkJoinPool}, as the loader, the spanning tree
+ *  and the failure analysis classes do. Work is submitted to the pool
+ *  rather than run on the common pool, so a caller controls how many
+ *  threads it uses.
+ *  <p>
+ *  Fork/join rethrows an exception from a worker thread wrapped in copies
+ *  of itself. These methods unwrap it, so the caller sees the original
+ *  exception and its message, such as the line and column of a parse error.
+ *
+ *  @author Daniel O'Neill
+ */
+final class ParallelFor {
+
+    // this class should not be instantiated
+    private ParallelFor() { }
+
+    /**
+     * Runs {@code body(0)} through {@code body(n-1)} in parallel on
+     * {@code pool} and waits for all of them.
+     *
+     * @param  pool the pool to run on
+     * @param  n the number of iterations
+     * @param  body the loop body
+     */
+    static void range(ForkJoinPool pool, int n, IntConsumer body) {
+        try {
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(body)).join();
+        }
+        catch (RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Runs {@code task} on {@code pool}, so that any parallel streams it
+     * uses run there too, and returns its result.
+     *
+     * @param  pool the pool to run on
+     * @param  task the task
+     * @return the result of {@code task}
+     */
+    static <T> T call(ForkJoinPool pool, Supplier<T> task) {
+        try {
+            return pool.submit(task::get).join();
+        }
+        catch (RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // fork/join rethrows a worker's exception wrapped in copies of itself;
+    // dig out the original
+    private static RuntimeException unwrap(RuntimeException e) {
+        Throwable t = e;
+        while (t.getCause() != null && t.getCause().getClass() == t.getClass())
+            t = t.getCause();
+        return (RuntimeException) t;
+    }
+}
@@ -0,0 +1,198 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelTopologyLoader.java
+ *  Execution:    java ParallelTopologyLoader topology.txt
+ *  Dependencies: TopologyReader.java EdgeTable.java CSRDigraph.java
+ *                EdgeWeightedDigraph.java ParallelFor.java StdOut.java
+ *
+ *  Loads a text topology on all cores: the file is split into
+ *  newline-aligned chunks that are parsed in parallel, and the compressed
+ *  sparse row adjacency is built with a parallel degree count and prefix
+ *  sum. The test client compares it with the single-threaded reader.
+ *
+ ******************************************************************************/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code ParallelTopologyLoader} class loads the text topology format
+ *  read by {@link TopologyReader} using a {@link ForkJoinPool}.
+ *  <p>
+ *  After the vertex count is read, the rest of the file is cut into chunks
+ *  that each start at the beginning of a line. The chunks are parsed
+ *  independently into small {@link EdgeTable}s, which are concatenated at
+ *  their prefix-sum offsets. The {@link CSRDigraph} is then built without
+ *  per-vertex locks: every link bumps the degree of its endpoints with an
+ *  atomic increment, a prefix sum turns degrees into range offsets, every
+ *  directed edge claims a slot in its range with an atomic fetch-and-add,
+ *  and each range is finally sorted by target so the result is identical to
+ *  {@code new CSRDigraph(G)} regardless of thread timing.
+ *  <p>
+ *  Errors are reported with the same line and column as {@link TopologyReader}.
+ *  The whole file is read into memory, so it is limited to 2 GB.
+ *
+ *  @author Daniel O'Neill
+ */
+public class ParallelTopologyLoader {
+    private static final int MIN_CHUNK = 1 << 20;     // bytes; smaller files use fewer chunks
+
+    // this class should not be instantiated
+    private ParallelTopologyLoader() { }
+
+    /**
+     * Loads the named topology file on the common fork/join pool.
+     *
+     * @param  file the name of the file
+     * @return the edge-weighted digraph, with its compressed sparse row form already built
+     * @throws IllegalArgumentException if the file cannot be read or is malformed
+     */
+    public static EdgeWeightedDigraph load(String file) {
+        return load(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads the named topology file on the given fork/join pool.
+     *
+     * @param  file the name of the file
+     * @param  pool the pool to parse and build on
+     * @return the edge-weighted digraph, with its compressed sparse row form already built
+     * @throws IllegalArgumentException if the file cannot be read or is malformed
+     */
+    public static EdgeWeightedDigraph load(String file, ForkJoinPool pool) {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(Paths.get(file));
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not open " + file, ioe);
+        }
+
+        TopologyReader header = new TopologyReader(data, 0, data.length, 1, 1);
+        int V = header.readVertexCount();
+        int[] start = chunks(data, header.position(), pool.getParallelism());
+        int k = start.length - 1;
+
+        // the line each chunk starts on, from a parallel newline count; every chunk
+        // but the first starts a line, and the first starts where the header ended
+        int[] line = new int[k+1];
+        line[0] = header.line();
+        ParallelFor.range(pool, k, c -> line[c+1] = newlines(data, start[c], start[c+1]));
+        for (int c = 0; c < k; c++)
+            line[c+1] += line[c];
+
+        EdgeTable[] parts = new EdgeTable[k];
+        ParallelFor.range(pool, k, c -> {
+            parts[c] = new EdgeTable(Math.max(8, (start[c+1] - start[c]) / 24));
+            int column = c == 0 ? header.column() : 1;
+            new TopologyReader(data, start[c], start[c+1], line[c], column).readLinks(V, parts[c]);
+        });
+        EdgeTable links = ParallelFor.call(pool, () -> EdgeTable.concat(parts));
+
+        return new EdgeWeightedDigraph(links, build(V, links, pool));
+    }
+
+    // chunk boundaries: start[c] .. start[c+1]-1 is chunk c, each beginning a line
+    private static int[] chunks(byte[] data, int from, int parallelism) {
+        int length = data.length - from;
+        int k = Math.max(1, Math.min(4 * parallelism, length / MIN_CHUNK));
+        int[] start = new int[k+1];
+        start[0] = from;
+        for (int c = 1; c < k; c++) {
+            int i = Math.max(start[c-1], from + (int) ((long) length * c / k));
+            while (i < data.length && data[i] != '\n') i++;
+            start[c] = Math.min(data.length, i + 1);
+        }
+        start[k] = data.length;
+        return start;
+    }
+
+    // number of newline bytes in data[from] .. data[to-1]
+    private static int newlines(byte[] data, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++)
+            if (data[i] == '\n') count++;
+        return count;
+    }
+
+    // compressed sparse row form of links, built in parallel
+    private static CSRDigraph build(int V, EdgeTable links, ForkJoinPool pool) {
+        int n = links.size();
+        if (2L * n > Integer.MAX_VALUE) throw new IllegalArgumentException("too many links");
+        int E = 2*n;
+
+        // parallel degree count, then prefix sum into range offsets
+        AtomicIntegerArray degree = new AtomicIntegerArray(V);
+        ParallelFor.range(pool, n, id -> {
+            degree.incrementAndGet(links.from(id));
+            degree.incrementAndGet(links.to(id));
+        });
+        int[] offset = new int[V+1];
+        for (int v = 0; v < V; v++)
+            offset[v+1] = offset[v] + degree.get(v);
+
+        // directed edge d = 2*id runs from -> to over link id and d = 2*id+1 runs back;
+        // each claims a slot in its source's range, keyed by (target, d)
+        AtomicIntegerArray next = new AtomicIntegerArray(Arrays.copyOf(offset, V));
+        long[] key = new long[E];
+        ParallelFor.range(pool, n, id -> {
+            int v = links.from(id), w = links.to(id);
+            key[next.getAndIncrement(v)] = ((long) w << 32) | (2*id);
+            key[next.getAndIncrement(w)] = ((long) v << 32) | (2*id+1);
+        });
+
+        // sorting each range makes the layout independent of thread timing
+        ParallelFor.range(pool, V, v -> Arrays.sort(key, offset[v], offset[v+1]));
+
+        int[] from      = new int[E];
+        int[] to        = new int[E];
+        double[] weight = new double[E];
+        int[] bandwidth = new int[E];
+        int[] twin      = new int[E];
+        int[] link      = new int[E];
+        int[] position  = new int[E];
+        ParallelFor.range(pool, V, v -> {
+            for (int i = offset[v]; i < offset[v+1]; i++) {
+                int d = (int) key[i], id = d >>> 1;
+                from[i]      = v;
+                to[i]        = (int) (key[i] >>> 32);
+                weight[i]    = links.latency(id);
+                bandwidth[i] = links.bandwidth(id);
+                link[i]      = id;
+                position[d]  = i;
+            }
+        });
+        ParallelFor.range(pool, E, i -> twin[i] = position[(int) key[i] ^ 1]);
+
+        return new CSRDigraph(links, offset, from, to, weight, bandwidth, twin, link);
+    }
+
+    /**
+     * Loads a topology file with {@link TopologyReader} and with this class
+     * and prints how long each took, including building the adjacency.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int trials = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long serial = Long.MAX_VALUE, parallel = Long.MAX_VALUE;
+        CSRDigraph G = null, H = null;
+        for (int t = 0; t < trials; t++) {
+            long start = System.nanoTime();
+            G = TopologyReader.read(args[0]).freeze();
+            serial = Math.min(serial, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            H = load(args[0]).freeze();
+            parallel = Math.min(parallel, System.nanoTime() - start);
+        }
+        for (int e = 0; e < G.E(); e++)
+            if (G.to(e) != H.to(e) || G.twin(e) != H.twin(e) || G.link(e) != H.link(e))
+                throw new IllegalStateException("loaders disagree at edge " + e);
+        StdOut.printf("TopologyReader + freeze(): %4d ms%n", serial / 1000000);
+        StdOut.printf("ParallelTopologyLoader:    %4d ms%n", parallel / 1000000);
+    }
+}
@@ -0,0 +1,197 @@
+/******************************************************************************
+ *  Compilation:  javac PrimMST.java
+ *  Execution:    java PrimMST filename.txt
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java Edge.java Queue.java
+ *                DoubleIndexMinPQ.java UF.java In.java StdOut.java
+ *
+ *  Compute a minimum spanning forest using the eager version of Prim's
+ *  algorithm, with a priority queue of vertices rather than edges.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code PrimMST} class represents a data type for computing a
+ *  <em>minimum spanning tree</em> in an edge-weighted graph.
+ *  The edge weights can be positive, zero, or negative and need not
+ *  be distinct. If the graph is not connected, it computes a <em>minimum
+ *  spanning forest</em>, which is the union of minimum spanning trees
+ *  in each connected component. The {@code weight()} method returns the
+ *  weight of a minimum spanning tree and the {@code edges()} method
+ *  returns its edges, in the order they joined the tree.
+ *  <p>
+ *  This implementation uses the eager version of <em>Prim's algorithm</em>.
+ *  The priority queue holds vertices, not edges: each vertex not yet on
+ *  the tree is keyed by the lightest edge that connects it to the tree, and
+ *  that key is decreased in place when a lighter edge turns up. The queue
+ *  never holds more than <em>V</em> entries and never holds an edge that has
+ *  become useless, unlike {@link LazyPrimMST}, whose queue holds up to
+ *  <em>E</em> edges. The queue is a {@link DoubleIndexMinPQ}, which keeps
+ *  the keys as primitives in a 4-ary heap.
+ *  The constructor takes time proportional to <em>E</em> log <em>V</em>
+ *  and extra space (not including the graph) proportional to <em>V</em>,
+ *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
+ *  Afterwards, the {@code weight()} method takes constant time
+ *  and the {@code edges()} method takes time proportional to <em>V</em>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *
+ *  @author Robert Sedgewick
+ *  @author Kevin Wayne
+ */
+public class PrimMST {
+    private int[] edgeTo;          // edgeTo[v] = number of shortest edge from tree vertex to non-tree vertex
+    private double[] distTo;       // distTo[v] = weight of shortest such edge
+    private boolean[] marked;      // marked[v] = true if v on tree, false otherwise
+    private DoubleIndexMinPQ pq;
+    private Queue<Edge> mst;       // edges in the MST, in the order they were added
+    private double weight;         // total weight of MST
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
+     * @param G the edge-weighted graph
+     */
+    public PrimMST(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-numbered graph.
+     * @param G the edge-weighted graph
+     */
+    public PrimMST(IndexedDigraph G) {
+        edgeTo = new int[G.V()];
+        distTo = new double[G.V()];
+        marked = new boolean[G.V()];
+        pq = new DoubleIndexMinPQ(G.V());
+        mst = new Queue<Edge>();
+        for (int v = 0; v < G.V(); v++)
+            distTo[v] = Double.POSITIVE_INFINITY;
+
+        for (int v = 0; v < G.V(); v++)      // run from each present vertex to find
+            if (!marked[v] && G.hasVertex(v)) prim(G, v);      // minimum spanning forest
+
+        // check optimality conditions
+        assert check(G);
+    }
+
+    // run Prim's algorithm in graph G, starting from vertex s
+    private void prim(IndexedDigraph G, int s) {
+        distTo[s] = 0.0;
+        edgeTo[s] = -1;
+        pq.insert(s, distTo[s]);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            marked[v] = true;
+            if (edgeTo[v] != -1) {
+                mst.enqueue(G.edge(edgeTo[v]));
+                weight += G.weight(edgeTo[v]);
+            }
+            scan(G, v);
+        }
+    }
+
+    // scan vertex v
+    private void scan(IndexedDigraph G, int v) {
+        for (int e = G.begin(v); e < G.end(v); e++) {
+            int w = G.to(e);
+            if (marked[w] || !G.hasEdge(e)) continue;         // v-w is obsolete edge
+            if (G.weight(e) < distTo[w]) {
+                distTo[w] = G.weight(e);
+                edgeTo[w] = e;
+                if (pq.contains(w)) pq.decreaseKey(w, distTo[w]);
+                else                pq.insert(w, distTo[w]);
+            }
+        }
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges, in the order they were added
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // check optimality conditions (takes time proportional to E V lg* V)
+    private boolean check(IndexedDigraph G) {
+
+        // check weight
+        double totalWeight = 0.0;
+        for (Edge e : edges()) {
+            totalWeight += e.weight();
+        }
+        if (Math.abs(totalWeight - weight()) > 1E-12 * Math.max(1.0, Math.abs(totalWeight))) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight());
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (Edge e : edges()) {
+            int v = e.from(), w = e.to();
+            if (uf.connected(v, w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (int e = 0; e < G.E(); e++) {
+            if (G.hasEdge(e) && !uf.connected(G.from(e), G.to(e))) {
+                System.err.println("Not a spanning forest");
+                return false;
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        for (Edge e : edges()) {
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (Edge f : mst) {
+                if (f != e) uf.union(f.from(), f.to());
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (int f = 0; f < G.E(); f++) {
+                int x = G.from(f), y = G.to(f);
+                if (G.hasEdge(f) && !uf.connected(x, y)) {
+                    if (G.weight(f) < e.weight()) {
+                        System.err.println("Edge " + G.edge(f) + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code PrimMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        PrimMST mst = new PrimMST(G);
+        for (Edge e : mst.edges()) {
+            StdOut.println(e.from() + "-" + e.to() + " " + e.weight());
+        }
+        StdOut.printf("%.5f\n", mst.weight());
+    }
+}
@@ -0,0 +1,430 @@
+/******************************************************************************
+ *  Compilation:  javac PushRelabel.java
+ *  Execution:    java PushRelabel topology.txt s t
+ *  Dependencies: EdgeWeightedDigraph.java IndexedDigraph.java CSRDigraph.java
+ *                In.java StdOut.java
+ *
+ *  Highest-label push-relabel algorithm for computing a max flow and a
+ *  min cut, with global relabeling and the gap heuristic.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code PushRelabel} class represents a data type for computing a
+ *  <em>maximum st-flow</em> and <em>minimum st-cut</em> in a flow
+ *  network. It answers the same questions as {@link FordFulkerson}.
+ *  <p>
+ *  This implementation uses the <em>highest-label push-relabel</em>
+ *  algorithm. Instead of looking for paths from the source, it floods the
+ *  network: every edge out of the source is saturated, and each vertex then
+ *  pushes its excess to neighbors one height below it, relabeling itself
+ *  higher when it cannot. The active vertex with the greatest height is
+ *  always discharged first. Two heuristics keep the heights exact enough to
+ *  matter:
+ *  <ul>
+ *  <li><em>global relabeling</em>: a breadth-first search back from the
+ *      sink over residual edges sets every height to its true distance to
+ *      the sink, at the start and again after every so many relabels;
+ *  <li><em>gap</em>: when no vertex is left at some height, nothing above
+ *      that height can reach the sink any more, so all of it is lifted out of
+ *      play at once.
+ *  </ul>
+ *  <p>
+ *  Phase one ends with a <em>maximum preflow</em>: the sink has received
+ *  the max flow value and the vertices that cannot reach it form the
+ *  source side of a minimum cut. Phase two returns the excess stranded on
+ *  that side to the source, which turns the preflow into a flow. When only
+ *  {@code value()} and {@code inCut()} are wanted, phase two can be skipped,
+ *  and {@code flow()} then returns the preflow.
+ *  <p>
+ *  The constructor takes time proportional to <em>V</em><sup>2</sup>
+ *  <em>E</em><sup>1/2</sup> in the worst case, and is usually the fastest
+ *  of the three max-flow classes on dense topologies. Afterwards, the
+ *  {@code inCut()} and {@code value()} methods take constant time. All
+ *  working state is kept in primitive arrays; the network itself is only
+ *  read, and every edge must have a twin to serve as its residual edge.
+ *
+ *  @author Daniel O'Neill
+ */
+public class PushRelabel {
+    private static final int GLOBAL_RELABEL_FREQUENCY = 6;   // relabel work per vertex between global relabels
+
+    private final IndexedDigraph G;
+    private final int V;              // number of vertices
+    private final int s, t;           // source and sink
+    private final int[] flow;         // flow[e] = flow on edge e; the twin of e carries -flow[e]
+    private final long[] excess;      // flow into v minus flow out of v
+    private final int[] height;       // height (distance label) of v
+    private final int[] current;      // next edge of v to try pushing along
+    private final int[] activeHead;   // first active vertex at height h, or -1
+    private final int[] activeNext;   // next active vertex at the same height as v
+    private final int[] allHead;      // first vertex at height h, or -1
+    private final int[] allNext, allPrev;
+    private final int[] queue;
+    private final boolean[] cut;      // cut[v] = true iff v cannot reach t in the residual network
+    private int maxActive;            // no active vertex is higher than this
+    private int maxHeight;            // no vertex below V is higher than this
+    private long work;                // relabel work since the last global relabel
+    private int value;                // value of max flow
+
+    /**
+     * Compute a maximum flow and minimum cut in the network {@code G}
+     * from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     */
+    public PushRelabel(EdgeWeightedDigraph G, int s, int t) {
+        this(G.freeze(), s, t, false);
+    }
+
+    /**
+     * Compute a maximum flow and minimum cut in the edge-numbered
+     * network {@code G} from vertex {@code s} to vertex {@code t}.
+     * The twin of each edge serves as its residual edge, so a link of
+     * bandwidth <em>c</em> can carry up to <em>c</em> in either direction.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @param  phaseOneOnly if {@code true}, stop at a maximum preflow, which
+     *         gives {@code value()} and {@code inCut()} but not a flow
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     * @throws IllegalArgumentException if some edge of {@code G} has no twin
+     */
+    public PushRelabel(IndexedDigraph G, int s, int t, boolean phaseOneOnly) {
+        this.G = G;
+        V = G.V();
+        validate(s);
+        validate(t);
+        if (s == t) throw new IllegalArgumentException("Source equals sink");
+        for (int e = 0; e < G.E(); e++)
+            if (G.twin(e) == -1) throw new IllegalArgumentException("edge " + e + " has no twin");
+        this.s = s;
+        this.t = t;
+        flow = new int[G.E()];
+        excess = new long[V];
+        height = new int[V];
+        current = new int[V];
+        activeHead = new int[V+1];
+        activeNext = new int[V];
+        allHead = new int[V+1];
+        allNext = new int[V];
+        allPrev = new int[V];
+        queue = new int[V];
+        cut = new boolean[V];
+
+        // saturate every edge out of the source
+        for (int e = G.begin(s); e < G.end(s); e++)
+            if (G.hasEdge(e) && G.to(e) != s) push(e, residualCapacity(e));
+
+        // phase one: discharge the highest active vertex below V until none is left
+        globalRelabel();
+        while (true) {
+            while (maxActive >= 0 && activeHead[maxActive] == -1) maxActive--;
+            if (maxActive < 0) break;
+            int v = activeHead[maxActive];
+            activeHead[maxActive] = activeNext[v];
+            discharge(v);
+            if (work > (long) GLOBAL_RELABEL_FREQUENCY * V + G.E() / 2) globalRelabel();
+        }
+        value = (int) excess[t];
+
+        // the exact distances give the min cut
+        globalRelabel();
+        for (int v = 0; v < V; v++)
+            cut[v] = height[v] >= V;
+
+        if (!phaseOneOnly) {
+            returnExcess();
+
+            // check optimality conditions
+            assert check();
+        }
+    }
+
+    // push d units of flow along edge e
+    private void push(int e, long d) {
+        int v = G.from(e), w = G.to(e);
+        flow[e] += (int) d;
+        flow[G.twin(e)] -= (int) d;
+        excess[v] -= d;
+        excess[w] += d;
+    }
+
+    // residual capacity of edge e
+    private int residualCapacity(int e) {
+        return G.bandwidth(e) - flow[e];
+    }
+
+    // push the excess of v downhill, relabeling v when no edge is admissible
+    private void discharge(int v) {
+        int h = height[v];
+        while (true) {
+            int end = G.end(v);
+            for (int e = current[v]; e < end; e++) {
+                int w = G.to(e);
+                if (height[w] != h - 1 || !G.hasEdge(e)) continue;
+                int r = residualCapacity(e);
+                if (r == 0) continue;
+                if (excess[w] == 0 && w != t) {
+                    activeNext[w] = activeHead[h-1];
+                    activeHead[h-1] = w;
+                }
+                push(e, Math.min(excess[v], r));
+                if (excess[v] == 0) {
+                    current[v] = e;
+                    return;
+                }
+            }
+
+            // relabel: one above the lowest neighbor with residual capacity
+            int lowest = V;
+            for (int e = G.begin(v); e < end; e++)
+                if (G.hasEdge(e) && residualCapacity(e) > 0) lowest = Math.min(lowest, height[G.to(e)] + 1);
+            work += end - G.begin(v) + 12;
+            current[v] = G.begin(v);
+            removeFromHeight(v);
+
+            // gap: nothing above an empty height can reach the sink
+            if (allHead[h] == -1) {
+                for (int g = h + 1; g <= maxHeight; g++) {
+                    for (int x = allHead[g]; x != -1; x = allNext[x])
+                        height[x] = V;
+                    allHead[g] = -1;
+                }
+                maxHeight = h - 1;
+                height[v] = V;
+                return;
+            }
+            if (lowest >= V) {
+                height[v] = V;
+                return;
+            }
+            h = height[v] = lowest;
+            addToHeight(v);
+            maxHeight = Math.max(maxHeight, h);
+            maxActive = Math.max(maxActive, h - 1);
+        }
+    }
+
+    // set every height to the distance to t in the residual network, or V if t is unreachable
+    private void globalRelabel() {
+        for (int v = 0; v < V; v++)
+            height[v] = V;
+        for (int h = 0; h <= V; h++)
+            activeHead[h] = allHead[h] = -1;
+        maxActive = maxHeight = -1;
+        work = 0;
+
+        int head = 0, tail = 0;
+        height[t] = 0;
+        queue[tail++] = t;
+        while (head < tail) {
+            int w = queue[head++];
+            int h = height[w];
+            addToHeight(w);
+            maxHeight = h;
+            if (w != t && excess[w] > 0) {
+                activeNext[w] = activeHead[h];
+                activeHead[h] = w;
+                maxActive = h;
+            }
+            for (int e = G.begin(w); e < G.end(w); e++) {
+                int x = G.to(e);
+                if (height[x] == V && x != s && G.hasEdge(e) && residualCapacity(G.twin(e)) > 0) {
+                    height[x] = h + 1;
+                    queue[tail++] = x;
+                }
+            }
+        }
+        for (int v = 0; v < V; v++)
+            current[v] = G.begin(v);
+    }
+
+    private void addToHeight(int v) {
+        int h = height[v];
+        allPrev[v] = -1;
+        allNext[v] = allHead[h];
+        if (allHead[h] != -1) allPrev[allHead[h]] = v;
+        allHead[h] = v;
+    }
+
+    private void removeFromHeight(int v) {
+        if (allPrev[v] != -1) allNext[allPrev[v]] = allNext[v];
+        else                  allHead[height[v]] = allNext[v];
+        if (allNext[v] != -1) allPrev[allNext[v]] = allPrev[v];
+    }
+
+    // phase two: push the excess left on the source side back to s, first-in first-out
+    private void returnExcess() {
+
+        // heights are V plus the distance to s, which every vertex with excess can reach
+        for (int v = 0; v < V; v++)
+            height[v] = 2*V;
+        int head = 0, tail = 0;
+        height[s] = V;
+        queue[tail++] = s;
+        while (head < tail) {
+            int w = queue[head++];
+            for (int e = G.begin(w); e < G.end(w); e++) {
+                int x = G.to(e);
+                if (height[x] == 2*V && cut[x] && G.hasEdge(e) && residualCapacity(G.twin(e)) > 0) {
+                    height[x] = height[w] + 1;
+                    queue[tail++] = x;
+                }
+            }
+        }
+
+        // queue[] is reused as a circular queue of the active vertices
+        head = tail = 0;
+        int size = 0;
+        for (int v = 0; v < V; v++) {
+            current[v] = G.begin(v);
+            if (v != s && v != t && excess[v] > 0) {
+                queue[tail++] = v;
+                size++;
+            }
+        }
+        tail %= V;
+        while (size > 0) {
+            int v = queue[head];
+            head = (head + 1) % V;
+            size--;
+            while (excess[v] > 0) {
+                if (current[v] == G.end(v)) {
+                    int lowest = Integer.MAX_VALUE;
+                    for (int e = G.begin(v); e < G.end(v); e++)
+                        if (G.hasEdge(e) && residualCapacity(e) > 0) lowest = Math.min(lowest, height[G.to(e)] + 1);
+                    height[v] = lowest;
+                    current[v] = G.begin(v);
+                }
+                int e = current[v];
+                int w = G.to(e);
+                int r = G.hasEdge(e) ? residualCapacity(e) : 0;
+                if (r > 0 && height[w] == height[v] - 1) {
+                    if (excess[w] == 0 && w != s && w != t) {
+                        queue[tail] = w;
+                        tail = (tail + 1) % V;
+                        size++;
+                    }
+                    push(e, Math.min(excess[v], r));
+                }
+                else current[v]++;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the maximum flow.
+     *
+     * @return the value of the maximum flow
+     */
+    public int value()  {
+        return value;
+    }
+
+    /**
+     * Returns the flow this max flow sends along edge {@code e} of the network.
+     * The flow along the twin of {@code e} is the negation of this value.
+     * If phase two was skipped, this is the maximum preflow, which may leave
+     * excess at vertices on the source side of the cut.
+     *
+     * @param  e the edge number
+     * @return the flow along edge {@code e}; negative if the flow over its
+     *         link runs the other way
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public int flow(int e)  {
+        if (e < 0 || e >= flow.length)
+            throw new IllegalArgumentException("edge " + e + " is not between 0 and " + (flow.length-1));
+        return flow[e];
+    }
+
+    /**
+     * Returns true if the specified vertex is on the {@code s} side of the mincut.
+     *
+     * @param  v vertex
+     * @return {@code true} if vertex {@code v} is on the {@code s} side of the mincut;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean inCut(int v)  {
+        validate(v);
+        return cut[v];
+    }
+
+    // throw an IllegalArgumentException if v is outside prescibed range
+    private void validate(int v)  {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // check that the flow is feasible and that its value equals the capacity of the cut
+    private boolean check() {
+        for (int e = 0; e < G.E(); e++) {
+            if (flow[e] > G.bandwidth(e) || (flow[e] != 0 && !G.hasEdge(e))) {
+                System.err.println("Edge does not satisfy capacity constraints: " + G.edge(e));
+                return false;
+            }
+            if (flow[e] != -flow[G.twin(e)]) {
+                System.err.println("Edge flow is not skew symmetric: " + G.edge(e));
+                return false;
+            }
+        }
+        for (int v = 0; v < V; v++) {
+            long expected = v == s ? -value : v == t ? value : 0;
+            if (excess[v] != expected) {
+                System.err.println("Net flow into " + v + " is " + excess[v] + ", expected " + expected);
+                return false;
+            }
+        }
+        if (!inCut(s) || inCut(t)) {
+            System.err.println("source and sink are not separated by the min cut");
+            return false;
+        }
+        long mincutValue = 0;
+        for (int e = 0; e < G.E(); e++)
+            if (G.hasEdge(e) && inCut(G.from(e)) && !inCut(G.to(e)))
+                mincutValue += G.bandwidth(e);
+        if (mincutValue != value) {
+            System.err.println("Max flow value = " + value + ", min cut value = " + mincutValue);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code PushRelabel} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CSRDigraph G = new EdgeWeightedDigraph(in).freeze();
+        int s = Integer.parseInt(args[1]), t = Integer.parseInt(args[2]);
+
+        // compute maximum flow and minimum cut
+        PushRelabel maxflow = new PushRelabel(G, s, t, false);
+        StdOut.println("Max flow from " + s + " to " + t);
+        for (int e = 0; e < G.E(); e++) {
+            if (maxflow.flow(e) > 0)
+                StdOut.println("   " + G.from(e) + "->" + G.to(e) + " " + maxflow.flow(e) + "/" + G.bandwidth(e));
+        }
+
+        // print min-cut
+        StdOut.print("Min cut: ");
+        for (int v = 0; v < G.V(); v++) {
+            if (maxflow.inCut(v)) StdOut.print(v + " ");
+        }
+        StdOut.println();
+
+        StdOut.println("Max flow value = " +  maxflow.value());
+    }
+}
@@ -0,0 +1,263 @@
+/******************************************************************************
+ *  Compilation:  javac TopologyReader.java
+ *  Execution:    java TopologyReader topology.txt
+ *  Dependencies: EdgeWeightedDigraph.java EdgeTable.java In.java StdOut.java
+ *
+ *  Reads a text topology file straight from its bytes, without Scanner,
+ *  regular expressions or intermediate Strings. The test client loads the
+ *  file both ways and compares the times.
+ *
+ *  % java TopologyReader topology.txt
+ *  In + Scanner:    1806 ms
+ *  TopologyReader:   115 ms
+ *
+ ******************************************************************************/
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *  The {@code TopologyReader} class parses the text topology format accepted
+ *  by {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)}: the number of
+ *  vertices, then one link per line given as two endpoints, a medium, a
+ *  bandwidth and a length, separated by whitespace.
+ *  <p>
+ *  It reads the raw bytes through a 64 KB buffer, accumulates integers digit
+ *  by digit and recognizes the medium by comparing bytes against
+ *  {@code copper}, so no {@code String} is created per field. Trailing
+ *  whitespace at the end of the file is allowed. On malformed input it throws
+ *  an {@code IllegalArgumentException} naming the line and column.
+ *
+ *  @author Daniel O'Neill
+ */
+public class TopologyReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] COPPER = { 'c', 'o', 'p', 'p', 'e', 'r' };
+
+    private final InputStream in;   // null when reading a range of an array
+    private byte[] buf;
+    private int pos;            // next byte of buf to read
+    private int limit;          // number of valid bytes in buf
+    private int line = 1;       // line of buf[pos], starting at 1
+    private int column = 1;     // column of buf[pos], starting at 1
+
+    /**
+     * Initializes a reader for the named topology file.
+     *
+     * @param  file the name of the file
+     * @throws IllegalArgumentException if the file cannot be opened
+     */
+    public TopologyReader(String file) {
+        try {
+            in = new FileInputStream(file);
+            buf = new byte[BUFFER_SIZE];
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not open " + file, ioe);
+        }
+    }
+
+    /**
+     * Initializes a reader for a topology on the given input stream.
+     *
+     * @param  in the input stream
+     */
+    public TopologyReader(InputStream in) {
+        this.in = in;
+        buf = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Initializes a reader for {@code data[start]} through {@code data[end-1]},
+     * which begin at line number {@code line} and column {@code column} of the file.
+     */
+    TopologyReader(byte[] data, int start, int end, int line, int column) {
+        this.in = null;
+        this.buf = data;
+        this.pos = start;
+        this.limit = end;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Reads the named topology file into an edge-weighted digraph.
+     *
+     * @param  file the name of the file
+     * @return the edge-weighted digraph
+     * @throws IllegalArgumentException if the file cannot be read or is malformed
+     */
+    public static EdgeWeightedDigraph read(String file) {
+        return new TopologyReader(file).readGraph();
+    }
+
+    /**
+     * Reads the whole input into an edge-weighted digraph and closes the input.
+     *
+     * @return the edge-weighted digraph
+     * @throws IllegalArgumentException if the input cannot be read or is malformed
+     */
+    public EdgeWeightedDigraph readGraph() {
+        try {
+            int V = readVertexCount();
+            EdgeTable links = new EdgeTable();
+            readLinks(V, links);
+            return new EdgeWeightedDigraph(V, links);
+        }
+        finally {
+            try {
+                if (in != null) in.close();
+            }
+            catch (IOException ioe) { }
+        }
+    }
+
+    // read the number of vertices at the head of the file
+    int readVertexCount() {
+        int V = readInt();
+        if (V < 0) throw error("number of vertices must be nonnegative");
+        return V;
+    }
+
+    // read links up to the end of the input, appending them to links
+    void readLinks(int V, EdgeTable links) {
+        while (skipWhitespace()) {
+            int v = readVertex(V);
+            int w = readVertex(V);
+            byte medium = readMedium();
+            int bandwidth = readInt();
+            int length = readInt();
+            links.add(v, w, medium, bandwidth, length);
+        }
+    }
+
+    // offset of the next unread byte
+    int position() {
+        return pos;
+    }
+
+    // line and column of the next unread byte
+    int line() {
+        return line;
+    }
+
+    int column() {
+        return column;
+    }
+
+    // read an endpoint, checking it against V
+    private int readVertex(int V) {
+        skipWhitespace();
+        int l = line, c = column;
+        int v = readInt();
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("line " + l + ", column " + c + ": vertex " + v
+                                               + " is not between 0 and " + (V-1));
+        return v;
+    }
+
+    // read an optionally signed decimal int
+    private int readInt() {
+        if (!skipWhitespace()) throw error("expected an integer but reached the end of the input");
+        boolean negative = false;
+        if (buf[pos] == '-') {
+            negative = true;
+            advance();
+            if (!fill()) throw error("expected a digit");
+        }
+        if (buf[pos] < '0' || buf[pos] > '9') throw error("expected an integer");
+        long x = 0;
+        while (fill() && buf[pos] >= '0' && buf[pos] <= '9') {
+            x = 10*x + (buf[pos] - '0');
+            if (x > (long) Integer.MAX_VALUE + 1) throw error("integer out of range");
+            advance();
+        }
+        if (fill() && !isWhitespace(buf[pos])) throw error("expected whitespace after an integer");
+        if (negative) x = -x;
+        if (x > Integer.MAX_VALUE) throw error("integer out of range");
+        return (int) x;
+    }
+
+    // read a medium token; anything but "copper" travels at optical speed
+    private byte readMedium() {
+        if (!skipWhitespace()) throw error("expected a medium but reached the end of the input");
+        int k = 0;
+        boolean copper = true;
+        while (fill() && !isWhitespace(buf[pos])) {
+            if (k >= COPPER.length || buf[pos] != COPPER[k]) copper = false;
+            k++;
+            advance();
+        }
+        return (copper && k == COPPER.length) ? EdgeTable.COPPER : EdgeTable.OPTICAL;
+    }
+
+    // skip whitespace; return false if the input is exhausted
+    private boolean skipWhitespace() {
+        while (fill()) {
+            if (!isWhitespace(buf[pos])) return true;
+            advance();
+        }
+        return false;
+    }
+
+    // move past buf[pos], keeping track of the line and column
+    private void advance() {
+        if (buf[pos++] == '\n') {
+            line++;
+            column = 1;
+        }
+        else column++;
+    }
+
+    // make sure buf[pos] is valid; return false at the end of the input
+    private boolean fill() {
+        if (pos < limit) return true;
+        if (in == null) return false;
+        try {
+            limit = in.read(buf, 0, buf.length);
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("could not read topology", ioe);
+        }
+        pos = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("line " + line + ", column " + column + ": " + message);
+    }
+
+    /**
+     * Loads a topology file with {@code In} and with {@code TopologyReader}
+     * and prints how long each took.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int trials = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long scanner = Long.MAX_VALUE, reader = Long.MAX_VALUE;
+        EdgeWeightedDigraph G = null, H = null;
+        for (int t = 0; t < trials; t++) {
+            long start = System.nanoTime();
+            G = new EdgeWeightedDigraph(new In(args[0]));
+            scanner = Math.min(scanner, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            H = read(args[0]);
+            reader = Math.min(reader, System.nanoTime() - start);
+        }
+        if (G.V() != H.V() || G.E() != H.E())
+            throw new IllegalStateException("readers disagree");
+        StdOut.printf("In + Scanner:   %5d ms%n", scanner / 1000000);
+        StdOut.printf("TopologyReader: %5d ms%n", reader / 1000000);
+    }
+}
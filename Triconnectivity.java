@@ -0,0 +1,1061 @@
+/******************************************************************************
+ *  Compilation:  javac Triconnectivity.java
+ *  Execution:    java Triconnectivity topology.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java Biconnected.java
+ *                UF.java Queue.java In.java StdOut.java
+ *
+ *  Finds every pair of vertices whose joint failure disconnects a network
+ *  without deleting any vertex: the graph is split into its biconnected
+ *  components, and each of those into its triconnected components
+ *  (the nodes of its SPQR tree), whose shapes give the separation pairs.
+ *  Runs in O(E log E + V) time and space; the pairs of each polygon are
+ *  listed on demand, so a long ring costs no more than its links.
+ *
+ *  J. Hopcroft and R. Tarjan, Dividing a graph into triconnected
+ *  components, SIAM J. Comput. 2(3), 1973; corrected by C. Gutwenger and
+ *  P. Mutzel, A linear time implementation of SPQR-trees, GD 2000.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code Triconnectivity} class answers the question of option 5 for
+ *  every vertex at once: once vertex {@code i} fails, which vertices are
+ *  articulation points of what remains? The answers are exactly those of
+ *  running {@link Biconnected} on the graph without {@code i}, for each
+ *  {@code i}, but are computed from a single decomposition.
+ *  <p>
+ *  Vertex {@code j} is an articulation point once {@code i} fails if and only if
+ *  <ul>
+ *  <li> {@code j} is already an articulation point, unless {@code j} lies in
+ *       exactly two blocks and one of them is a single link (or bundle of
+ *       parallel links) to {@code i}; or
+ *  <li> {@code i} and {@code j} lie in the same block and removing both
+ *       disconnects it, that is, they form a separation pair of the block.
+ *  </ul>
+ *  The separation pairs of a block are read off its triconnected components:
+ *  the two poles of a virtual edge joining two components that are not both
+ *  bonds, the poles of a bond with at least two virtual edges, and any two
+ *  nonadjacent vertices of a polygon.
+ *  <p>
+ *  The blocks come from {@link Biconnected} and are split with the
+ *  path-search algorithm of Hopcroft and Tarjan as corrected by Gutwenger
+ *  and Mutzel; neither search recurses, so deep topologies do not overflow
+ *  the stack. The pairs from virtual edges and bonds number fewer than the
+ *  links and are stored. A polygon of <em>k</em> vertices has
+ *  <em>k</em>(<em>k</em> - 3)/2 pairs, so it is kept implicit instead: its
+ *  vertices in cycle order, and for each vertex the polygons it lies on and
+ *  its position there. Two vertices of a polygon are a pair exactly when
+ *  they are not next to each other on it.
+ *  <p>
+ *  The constructor takes time proportional to <em>E</em> log <em>E</em> +
+ *  <em>V</em> and space proportional to <em>E</em> + <em>V</em>. Afterwards
+ *  {@code isArticulation(i, j)} takes time logarithmic in the number of
+ *  stored pairs plus the number of polygons {@code i} and {@code j} lie on,
+ *  which is constant for a vertex on at most one polygon, and
+ *  {@code partners(i)} takes time proportional to the number of articulation
+ *  points plus <em>A</em> log <em>A</em>, where <em>A</em> is the number of
+ *  answers.
+ *  <p>
+ *  Vertices and links hidden by a view such as {@link MaskedDigraph} are
+ *  treated as failed already.
+ *
+ *  @author Daniel O'Neill
+ */
+public class Triconnectivity {
+    private final int V;
+    private final int[] blocks;        // number of blocks containing v, at most 3 counted
+    private final int[] lone1, lone2;  // other endpoints of two-vertex blocks containing v, or -1
+    private final int[] cut;           // the articulation points, in ascending order
+    private final int[] first;         // partner[first[v]] .. partner[first[v+1]-1] are v's stored partners
+    private final int[] partner;       // vertices forming a separation pair with v, ascending
+    private final int[] onFirst;       // polygons on which v lies are onRing[onFirst[v]] .. onRing[onFirst[v+1]-1]
+    private final int[] onRing;        // a polygon, in ascending order for each vertex
+    private final int[] onPos;         // position of v on polygon onRing[k]
+
+    private int[] pairV = new int[16], pairW = new int[16];
+    private int pairs;
+    private int[] ringStart = new int[16];     // polygon p is ring[ringStart[p]] .. ring[ringStart[p+1]-1]
+    private int[] ring = new int[64];          // vertices of each polygon with four or more, in cycle order
+    private int rings;
+
+    /**
+     * Computes the separation pairs of {@code G}.
+     *
+     * @param  G the edge-weighted digraph
+     */
+    public Triconnectivity(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Computes the separation pairs of {@code G}, whose links must have an
+     * edge in each direction.
+     *
+     * @param  G the digraph
+     */
+    public Triconnectivity(IndexedDigraph G) {
+        V = G.V();
+        blocks = new int[V];
+        lone1 = new int[V];
+        lone2 = new int[V];
+        Arrays.fill(lone1, -1);
+        Arrays.fill(lone2, -1);
+
+        decompose(G);
+
+        int count = 0;
+        for (int v = 0; v < V; v++)
+            if (blocks[v] >= 2) count++;
+        cut = new int[count];
+        count = 0;
+        for (int v = 0; v < V; v++)
+            if (blocks[v] >= 2) cut[count++] = v;
+
+        // group the pairs by vertex, in both directions, then sort and deduplicate
+        int[] degree = new int[V+1];
+        for (int p = 0; p < pairs; p++) {
+            degree[pairV[p]+1]++;
+            degree[pairW[p]+1]++;
+        }
+        for (int v = 0; v < V; v++)
+            degree[v+1] += degree[v];
+        int[] all = new int[degree[V]];
+        int[] next = Arrays.copyOf(degree, V);
+        for (int p = 0; p < pairs; p++) {
+            all[next[pairV[p]]++] = pairW[p];
+            all[next[pairW[p]]++] = pairV[p];
+        }
+        pairV = pairW = null;
+        first = new int[V+1];
+        int size = 0;
+        for (int v = 0; v < V; v++) {
+            Arrays.sort(all, degree[v], degree[v+1]);
+            first[v] = size;
+            for (int k = degree[v]; k < degree[v+1]; k++)
+                if (size == first[v] || all[size-1] != all[k]) all[size++] = all[k];
+        }
+        first[V] = size;
+        partner = Arrays.copyOf(all, size);
+
+        // the polygons each vertex lies on, in ascending order of polygon
+        int length = ringStart[rings];
+        onFirst = new int[V+1];
+        for (int k = 0; k < length; k++)
+            onFirst[ring[k]+1]++;
+        for (int v = 0; v < V; v++)
+            onFirst[v+1] += onFirst[v];
+        onRing = new int[length];
+        onPos = new int[length];
+        next = Arrays.copyOf(onFirst, V);
+        for (int p = 0; p < rings; p++) {
+            for (int k = ringStart[p]; k < ringStart[p+1]; k++) {
+                int v = ring[k], at = next[v]++;
+                onRing[at] = p;
+                onPos[at] = k - ringStart[p];
+            }
+        }
+        ring = Arrays.copyOf(ring, length);
+        ringStart = Arrays.copyOf(ringStart, rings+1);
+    }
+
+    // group the links of G by block, one edge per link, and split each block
+    private void decompose(IndexedDigraph G) {
+        Biconnected bic = new Biconnected(G);
+        int B = bic.components();
+        int[] first = new int[B+1];
+        for (int e = 0; e < G.E(); e++)
+            if (bic.component(e) != -1 && (G.twin(e) == -1 || e < G.twin(e)))
+                first[bic.component(e)+1]++;
+        for (int c = 0; c < B; c++)
+            first[c+1] += first[c];
+        int[] links = new int[first[B]];
+        int[] next = Arrays.copyOf(first, B);
+        for (int e = 0; e < G.E(); e++)
+            if (bic.component(e) != -1 && (G.twin(e) == -1 || e < G.twin(e)))
+                links[next[bic.component(e)]++] = e;
+
+        int[] local = new int[V];      // number of v within the current block, or -1
+        Arrays.fill(local, -1);
+        for (int c = 0; c < B; c++)
+            block(G, links, first[c], first[c+1], local);
+    }
+
+    // record the block whose edges are links[lo] .. links[hi-1]
+    private void block(IndexedDigraph G, int[] links, int lo, int hi, int[] local) {
+        int n = 0;
+        int[] vertex = new int[Math.min(V, 2*(hi-lo))];
+        for (int k = lo; k < hi; k++) {
+            int e = links[k];
+            int v = G.from(e), w = G.to(e);
+            if (local[v] == -1) { local[v] = n; vertex[n++] = v; }
+            if (local[w] == -1) { local[w] = n; vertex[n++] = w; }
+        }
+        for (int k = 0; k < n; k++)
+            if (blocks[vertex[k]] < 3) blocks[vertex[k]]++;
+
+        if (n == 2) {
+            int v = vertex[0], w = vertex[1];
+            if (lone1[v] == -1) lone1[v] = w; else lone2[v] = w;
+            if (lone1[w] == -1) lone1[w] = v; else lone2[w] = v;
+        }
+        else if (n >= 4) {
+            // parallel links do not affect which pairs separate the block
+            long[] key = new long[hi-lo];
+            for (int k = lo; k < hi; k++) {
+                int a = local[G.from(links[k])], b = local[G.to(links[k])];
+                key[k-lo] = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+            }
+            Arrays.sort(key);
+            int m = 0;
+            for (int k = 0; k < key.length; k++)
+                if (m == 0 || key[m-1] != key[k]) key[m++] = key[k];
+            int[] from = new int[m], to = new int[m];
+            for (int k = 0; k < m; k++) {
+                from[k] = (int) (key[k] >>> 32);
+                to[k]   = (int) key[k];
+            }
+            new Splitter(n, m, from, to).separationPairs(this, vertex);
+        }
+
+        for (int k = 0; k < n; k++)
+            local[vertex[k]] = -1;
+    }
+
+    // record the separation pair {v, w}
+    private void pair(int v, int w) {
+        if (pairs == pairV.length) {
+            pairV = Arrays.copyOf(pairV, grow(pairs));
+            pairW = Arrays.copyOf(pairW, grow(pairs));
+        }
+        pairV[pairs] = v;
+        pairW[pairs] = w;
+        pairs++;
+    }
+
+    // record a polygon whose vertices in cycle order are vertex[cycle[0]] .. vertex[cycle[k-1]]
+    private void polygon(int[] vertex, int[] cycle, int k) {
+        int at = ringStart[rings];
+        if (rings + 1 == ringStart.length) ringStart = Arrays.copyOf(ringStart, grow(rings + 1));
+        while (at + k > ring.length) ring = Arrays.copyOf(ring, grow(ring.length));
+        for (int j = 0; j < k; j++)
+            ring[at + j] = vertex[cycle[j]];
+        ringStart[++rings] = at + k;
+    }
+
+    // a larger capacity for an array of n entries
+    private static int grow(int n) {
+        if (n >= Integer.MAX_VALUE - 8) throw new IllegalStateException("too many separation pairs");
+        return (int) Math.min(2L * n, Integer.MAX_VALUE - 8);
+    }
+
+    // do i and j lie on a common polygon without being next to each other on it?
+    private boolean polygonPair(int i, int j) {
+        int a = onFirst[i], b = onFirst[j];
+        while (a < onFirst[i+1] && b < onFirst[j+1]) {
+            if      (onRing[a] < onRing[b]) a++;
+            else if (onRing[a] > onRing[b]) b++;
+            else {
+                int p = onRing[a], k = ringStart[p+1] - ringStart[p];
+                int d = Math.abs(onPos[a] - onPos[b]);
+                if (d != 1 && d != k-1) return true;
+                a++;
+                b++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if vertex {@code v} is an articulation point.
+     *
+     * @param  v the vertex
+     * @return {@code true} if {@code v} is an articulation point; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean isArticulation(int v) {
+        validateVertex(v);
+        return blocks[v] >= 2;
+    }
+
+    /**
+     * Returns true if vertex {@code j} is an articulation point once vertex
+     * {@code i} has failed, as {@code Biconnected} would report on the graph
+     * without {@code i}.
+     *
+     * @param  i the failed vertex
+     * @param  j the vertex
+     * @return {@code true} if removing {@code i} leaves {@code j} an articulation point;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= i < V} and {@code 0 <= j < V}
+     */
+    public boolean isArticulation(int i, int j) {
+        validateVertex(i);
+        validateVertex(j);
+        if (i == j) return false;
+        if (blocks[j] >= 2)
+            return blocks[j] > 2 || (lone1[j] != i && lone2[j] != i);
+        return Arrays.binarySearch(partner, first[i], first[i+1], j) >= 0 || polygonPair(i, j);
+    }
+
+    /**
+     * Returns the vertices that are articulation points once vertex {@code i}
+     * has failed, in ascending order.
+     *
+     * @param  i the failed vertex
+     * @return the vertices {@code j} for which {@code isArticulation(i, j)} is true
+     * @throws IllegalArgumentException unless {@code 0 <= i < V}
+     */
+    public Iterable<Integer> partners(int i) {
+        validateVertex(i);
+
+        // the stored partners, the articulation points, and the vertices not next to i
+        // on each of its polygons, gathered then sorted
+        int size = first[i+1] - first[i] + cut.length;
+        for (int a = onFirst[i]; a < onFirst[i+1]; a++) {
+            int p = onRing[a];
+            size += ringStart[p+1] - ringStart[p] - 3;
+        }
+        int[] candidate = new int[size];
+        int n = 0;
+        for (int p = first[i]; p < first[i+1]; p++)
+            candidate[n++] = partner[p];
+        for (int c = 0; c < cut.length; c++)
+            candidate[n++] = cut[c];
+        for (int a = onFirst[i]; a < onFirst[i+1]; a++) {
+            int p = onRing[a], k = ringStart[p+1] - ringStart[p];
+            for (int d = 2; d < k-1; d++)
+                candidate[n++] = ring[ringStart[p] + (onPos[a] + d) % k];
+        }
+        Arrays.sort(candidate, 0, n);
+
+        Queue<Integer> result = new Queue<Integer>();
+        for (int k = 0; k < n; k++) {
+            int j = candidate[k];
+            if (k > 0 && candidate[k-1] == j) continue;
+
+            // a vertex that is not an articulation point was gathered only as a partner
+            if (blocks[j] < 2 || isArticulation(i, j)) result.enqueue(j);
+        }
+        return result;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+
+    /**
+     *  Splits one biconnected simple graph into its triconnected components.
+     *  Vertices are 0 through n-1 and vertex 0 is the root of the search.
+     *  Edges are numbered as they are created; the first m are the real
+     *  ones and the rest are virtual. The method names and the order of the
+     *  steps follow Gutwenger and Mutzel, with each recursive search replaced
+     *  by a loop over an explicit stack of frames.
+     */
+    private static final class Splitter {
+        private static final byte UNSEEN = 0, TREE = 1, FROND = 2;
+        private static final int NIL = -1;
+        private static final int EOS = -1;            // end-of-segment marker on the triple stack
+
+        private final int n;                          // number of vertices
+        private final int real;                       // number of real edges
+        private int m;                                // number of edges so far
+        private int[] src, tgt;                       // endpoints, oriented by the first search
+        private byte[] type;
+        private boolean[] start;                      // does edge e start a path?
+        private int[] inAdj;                          // list node of e in A[src[e]], or NIL
+        private int[] inHigh;                         // list node of e in HIGHPT[tgt[e]], or NIL
+
+        private final int[] number, lowpt1, lowpt2, nd, father, degree, treeArc, newnum, nodeAt;
+
+        // adjacency lists A[v] of outgoing arcs, as doubly-linked list nodes
+        private final int[] aHead;
+        private int[] aNext, aPrev, aEdge;
+        private int aNodes;
+
+        // HIGHPT[v], the sources of the fronds into v in the order they were visited
+        private final int[] hHead, hTail;
+        private int[] hNext, hPrev, hVal;
+        private int hNodes;
+
+        private int[] th, ta, tb;                     // triple stack
+        private int ttop;
+        private int[] estack;                         // edge stack
+        private int etop;
+
+        private int[] compFirst = new int[16];        // components as runs of compEdge
+        private int comps;
+        private int[] compEdge = new int[64];
+        private int compSize;
+
+        Splitter(int n, int m, int[] from, int[] to) {
+            this.n = n;
+            this.real = m;
+            this.m = m;
+            int capacity = 2*m + 8;
+            src = Arrays.copyOf(from, capacity);
+            tgt = Arrays.copyOf(to, capacity);
+            type = new byte[capacity];
+            start = new boolean[capacity];
+            inAdj = new int[capacity];
+            inHigh = new int[capacity];
+            Arrays.fill(inAdj, NIL);
+            Arrays.fill(inHigh, NIL);
+
+            number  = new int[n];
+            lowpt1  = new int[n];
+            lowpt2  = new int[n];
+            nd      = new int[n];
+            father  = new int[n];
+            degree  = new int[n];
+            treeArc = new int[n];
+            newnum  = new int[n];
+            nodeAt  = new int[n+1];
+
+            aHead = new int[n];
+            Arrays.fill(aHead, NIL);
+            aNext = new int[capacity];
+            aPrev = new int[capacity];
+            aEdge = new int[capacity];
+            hHead = new int[n];
+            hTail = new int[n];
+            Arrays.fill(hHead, NIL);
+            Arrays.fill(hTail, NIL);
+            hNext = new int[capacity];
+            hPrev = new int[capacity];
+            hVal  = new int[capacity];
+
+            th = new int[capacity];
+            ta = new int[capacity];
+            tb = new int[capacity];
+            estack = new int[capacity];
+        }
+
+        // split the graph and report its separation pairs to T, naming vertex v as vertex[v]
+        void separationPairs(Triconnectivity T, int[] vertex) {
+            dfs1();
+            for (int e = 0; e < m; e++) {
+                boolean up = number[tgt[e]] > number[src[e]];
+                if ((up && type[e] == FROND) || (!up && type[e] == TREE)) {
+                    int t = src[e];
+                    src[e] = tgt[e];
+                    tgt[e] = t;
+                }
+            }
+            buildAcceptableAdjStruct();
+            dfs2();
+            pathSearch();
+            newComp();
+            while (etop > 0) add(estack[--etop]);
+            compFirst[comps] = compSize;
+            assemble(T, vertex);
+        }
+
+        // number the vertices in depth-first order and compute lowpt1, lowpt2,
+        // the number of descendants, and the type of every edge
+        private void dfs1() {
+            int[] first = new int[n+1];
+            for (int e = 0; e < m; e++) {
+                first[src[e]+1]++;
+                first[tgt[e]+1]++;
+            }
+            for (int v = 0; v < n; v++)
+                first[v+1] += first[v];
+            int[] inc = new int[2*m];
+            int[] scan = Arrays.copyOf(first, n);
+            for (int e = 0; e < m; e++) {
+                inc[scan[src[e]]++] = e;
+                inc[scan[tgt[e]]++] = e;
+            }
+            for (int v = 0; v < n; v++) {
+                scan[v] = first[v];
+                degree[v] = first[v+1] - first[v];
+            }
+
+            int[] stack = new int[n];
+            int sp = 0, count = 0;
+            number[0] = lowpt1[0] = lowpt2[0] = ++count;
+            nd[0] = 1;
+            father[0] = NIL;
+            stack[sp++] = 0;
+            while (sp > 0) {
+                int v = stack[sp-1];
+                if (scan[v] < first[v+1]) {
+                    int e = inc[scan[v]++];
+                    if (type[e] != UNSEEN) continue;
+                    int w = src[e] == v ? tgt[e] : src[e];
+                    if (number[w] == 0) {
+                        type[e] = TREE;
+                        treeArc[w] = e;
+                        father[w] = v;
+                        number[w] = lowpt1[w] = lowpt2[w] = ++count;
+                        nd[w] = 1;
+                        stack[sp++] = w;
+                    }
+                    else {
+                        type[e] = FROND;
+                        if (number[w] < lowpt1[v]) {
+                            lowpt2[v] = lowpt1[v];
+                            lowpt1[v] = number[w];
+                        }
+                        else if (number[w] > lowpt1[v])
+                            lowpt2[v] = Math.min(lowpt2[v], number[w]);
+                    }
+                }
+                else {
+                    sp--;
+                    int u = father[v];
+                    if (u == NIL) continue;
+                    if (lowpt1[v] < lowpt1[u]) {
+                        lowpt2[u] = Math.min(lowpt1[u], lowpt2[v]);
+                        lowpt1[u] = lowpt1[v];
+                    }
+                    else if (lowpt1[v] == lowpt1[u])
+                        lowpt2[u] = Math.min(lowpt2[u], lowpt2[v]);
+                    else
+                        lowpt2[u] = Math.min(lowpt2[u], lowpt1[v]);
+                    nd[u] += nd[v];
+                }
+            }
+        }
+
+        // order each adjacency list by phi with a bucket sort
+        private void buildAcceptableAdjStruct() {
+            int max = 3*n + 2;
+            int[] phi = new int[m];
+            int[] count = new int[max+2];
+            for (int e = 0; e < m; e++) {
+                int w = tgt[e];
+                if (type[e] == FROND)                   phi[e] = 3*number[w] + 1;
+                else if (lowpt2[w] < number[src[e]])    phi[e] = 3*lowpt1[w];
+                else                                    phi[e] = 3*lowpt1[w] + 2;
+                count[phi[e]+1]++;
+            }
+            for (int k = 0; k <= max; k++)
+                count[k+1] += count[k];
+            int[] order = new int[m];
+            for (int e = 0; e < m; e++)
+                order[count[phi[e]]++] = e;
+
+            int[] tail = new int[n];
+            Arrays.fill(tail, NIL);
+            for (int k = 0; k < m; k++) {
+                int e = order[k], v = src[e];
+                int node = aNodes++;
+                aEdge[node] = e;
+                aNext[node] = NIL;
+                aPrev[node] = tail[v];
+                if (tail[v] == NIL) aHead[v] = node;
+                else                aNext[tail[v]] = node;
+                tail[v] = node;
+                inAdj[e] = node;
+            }
+        }
+
+        // renumber the vertices so the first path visited gets the highest
+        // numbers, mark the edges that start a path, and build HIGHPT
+        private void dfs2() {
+            int[] stack = new int[n];
+            int[] scan = new int[n];
+            int sp = 0, numCount = n;
+            boolean newPath = true;
+            newnum[0] = numCount - nd[0] + 1;
+            scan[0] = aHead[0];
+            stack[sp++] = 0;
+            while (sp > 0) {
+                int v = stack[sp-1];
+                int node = scan[v];
+                if (node != NIL) {
+                    scan[v] = aNext[node];
+                    int e = aEdge[node], w = tgt[e];
+                    if (newPath) {
+                        newPath = false;
+                        start[e] = true;
+                    }
+                    if (type[e] == TREE) {
+                        newnum[w] = numCount - nd[w] + 1;
+                        scan[w] = aHead[w];
+                        stack[sp++] = w;
+                    }
+                    else {
+                        inHigh[e] = highPushBack(w, newnum[v]);
+                        newPath = true;
+                    }
+                }
+                else {
+                    sp--;
+                    if (sp > 0) numCount--;
+                }
+            }
+
+            int[] old2new = new int[n+1];
+            for (int v = 0; v < n; v++)
+                old2new[number[v]] = newnum[v];
+            for (int v = 0; v < n; v++) {
+                nodeAt[newnum[v]] = v;
+                lowpt1[v] = old2new[lowpt1[v]];
+                lowpt2[v] = old2new[lowpt2[v]];
+            }
+        }
+
+        // the path search, finding separation pairs of type 1 and type 2;
+        // frames hold the vertex, its current and next list node, the edge
+        // being followed and the number of edges of A[v] not yet finished
+        private void pathSearch() {
+            int[] fv = new int[n], fit = new int[n], fnext = new int[n], fe = new int[n], fout = new int[n];
+            ta[ttop = 0] = EOS;
+            int sp = 0;
+            fv[sp] = 0;
+            fit[sp] = aHead[0];
+            fout[sp] = listSize(0);
+            sp++;
+            boolean returning = false;
+            while (sp > 0) {
+                int f = sp - 1;
+                int v = fv[f], vnum = newnum[v];
+                if (returning) {
+                    returning = false;
+                    fout[f] = afterTreeArc(v, fit[f], fe[f], fout[f]);
+                    fit[f] = fnext[f];
+                }
+                boolean descended = false;
+                while (fit[f] != NIL) {
+                    int it = fit[f];
+                    fnext[f] = aNext[it];
+                    int e = aEdge[it];
+                    fe[f] = e;
+                    int w = tgt[e], wnum = newnum[w];
+                    if (type[e] == TREE) {
+                        if (start[e]) {
+                            int y = 0, b = 0;
+                            if (ta[ttop] > lowpt1[w]) {
+                                do {
+                                    y = Math.max(y, th[ttop]);
+                                    b = tb[ttop--];
+                                } while (ta[ttop] > lowpt1[w]);
+                                tpush(y, lowpt1[w], b);
+                            }
+                            else tpush(wnum + nd[w] - 1, lowpt1[w], vnum);
+                            tpush(0, EOS, 0);
+                        }
+                        fv[sp] = w;
+                        fit[sp] = aHead[w];
+                        fout[sp] = listSize(w);
+                        sp++;
+                        descended = true;
+                        break;
+                    }
+                    else {
+                        if (start[e]) {
+                            int y = 0, b = 0;
+                            if (ta[ttop] > wnum) {
+                                do {
+                                    y = Math.max(y, th[ttop]);
+                                    b = tb[ttop--];
+                                } while (ta[ttop] > wnum);
+                                tpush(y, wnum, b);
+                            }
+                            else tpush(vnum, wnum, vnum);
+                        }
+                        epush(e);
+                        fit[f] = fnext[f];
+                    }
+                }
+                if (!descended) {
+                    sp--;
+                    returning = true;
+                }
+            }
+        }
+
+        // the rest of the path search at v once the search below the tree arc e,
+        // at list node it of A[v], has finished; returns the new value of outv
+        private int afterTreeArc(int v, int it, int e, int outv) {
+            int vnum = newnum[v];
+            int w = tgt[e], wnum = newnum[w];
+            epush(treeArc[w]);
+
+            // type-2 separation pairs
+            while (vnum != 1 && (ta[ttop] == vnum || (degree[w] == 2 && firstChild(w) > wnum))) {
+                int a = ta[ttop], b = tb[ttop];
+                if (a == vnum && father[nodeAt[b]] == nodeAt[a]) {
+                    ttop--;
+                    continue;
+                }
+                int eab = NIL, eVirt, x;
+                if (degree[w] == 2 && firstChild(w) > wnum) {
+                    int e1 = estack[--etop];
+                    int e2 = estack[--etop];
+                    listDelete(w, inAdj[e2]);
+                    x = tgt[e2];
+                    eVirt = newEdge(v, x);
+                    degree[x]--;
+                    degree[v]--;
+                    newComp();
+                    add(e1);
+                    add(e2);
+                    add(eVirt);
+                    if (etop > 0) {
+                        int e3 = estack[etop-1];
+                        if (src[e3] == x && tgt[e3] == v) {
+                            eab = estack[--etop];
+                            listDelete(x, inAdj[eab]);
+                            delHigh(eab);
+                        }
+                    }
+                }
+                else {
+                    int h = th[ttop--];
+                    newComp();
+                    while (etop > 0) {
+                        int xy = estack[etop-1];
+                        int xs = newnum[src[xy]], xt = newnum[tgt[xy]];
+                        if (!(a <= xs && xs <= h && a <= xt && xt <= h)) break;
+                        etop--;
+                        if ((xs == a && xt == b) || (xt == a && xs == b)) {
+                            eab = xy;
+                            listDelete(src[eab], inAdj[eab]);
+                            delHigh(eab);
+                        }
+                        else {
+                            if (it != inAdj[xy]) {
+                                listDelete(src[xy], inAdj[xy]);
+                                delHigh(xy);
+                            }
+                            add(xy);
+                            degree[src[xy]]--;
+                            degree[tgt[xy]]--;
+                        }
+                    }
+                    eVirt = newEdge(nodeAt[a], nodeAt[b]);
+                    add(eVirt);
+                    x = nodeAt[b];
+                }
+                if (eab != NIL) {
+                    newComp();
+                    add(eab);
+                    add(eVirt);
+                    eVirt = newEdge(v, x);
+                    add(eVirt);
+                    degree[x]--;
+                    degree[v]--;
+                }
+                epush(eVirt);
+                aEdge[it] = eVirt;
+                inAdj[eVirt] = it;
+                degree[x]++;
+                degree[v]++;
+                father[x] = v;
+                treeArc[x] = eVirt;
+                type[eVirt] = TREE;
+                w = x;
+                wnum = newnum[w];
+            }
+
+            // type-1 separation pair
+            if (lowpt2[w] >= vnum && lowpt1[w] < vnum && (father[v] != 0 || outv >= 2)) {
+                newComp();
+                int xx = 0, y = 0;
+                while (etop > 0) {
+                    int xy = estack[etop-1];
+                    xx = newnum[src[xy]];
+                    y = newnum[tgt[xy]];
+                    if (!((wnum <= xx && xx < wnum + nd[w]) || (wnum <= y && y < wnum + nd[w]))) break;
+                    etop--;
+                    add(xy);
+                    delHigh(xy);
+                    degree[src[xy]]--;
+                    degree[tgt[xy]]--;
+                }
+                int low = nodeAt[lowpt1[w]];
+                int eVirt = newEdge(v, low);
+                type[eVirt] = FROND;
+                add(eVirt);
+
+                if ((xx == vnum && y == lowpt1[w]) || (y == vnum && xx == lowpt1[w])) {
+                    newComp();
+                    int eh = estack[--etop];
+                    if (it != inAdj[eh]) listDelete(src[eh], inAdj[eh]);
+                    add(eh);
+                    add(eVirt);
+                    eVirt = newEdge(v, low);
+                    type[eVirt] = FROND;
+                    add(eVirt);
+                    inHigh[eVirt] = inHigh[eh];
+                    inHigh[eh] = NIL;
+                    degree[v]--;
+                    degree[low]--;
+                }
+
+                if (low != father[v]) {
+                    epush(eVirt);
+                    aEdge[it] = eVirt;
+                    inAdj[eVirt] = it;
+                    if (inHigh[eVirt] == NIL && high(low) < vnum)
+                        inHigh[eVirt] = highPushFront(low, vnum);
+                    degree[v]++;
+                    degree[low]++;
+                }
+                else {
+                    listDelete(v, it);
+                    newComp();
+                    add(eVirt);
+                    eVirt = newEdge(low, v);
+                    add(eVirt);
+                    int eh = treeArc[v];
+                    add(eh);
+                    treeArc[v] = eVirt;
+                    type[eVirt] = TREE;
+                    inAdj[eVirt] = inAdj[eh];
+                    aEdge[inAdj[eh]] = eVirt;
+                }
+            }
+
+            if (start[e]) {
+                while (ta[ttop] != EOS) ttop--;
+                ttop--;
+            }
+            while (ta[ttop] != EOS && tb[ttop] != vnum && high(v) > th[ttop])
+                ttop--;
+            return outv - 1;
+        }
+
+        // merge bonds with bonds and polygons with polygons along their shared
+        // virtual edges, then report the separation pairs of the SPQR tree
+        private void assemble(Triconnectivity T, int[] vertex) {
+            final byte BOND = 0, POLYGON = 1, RIGID = 2;
+            byte[] kind = new byte[comps];
+            int[] stamp = new int[n];
+            int[] deg = new int[n];
+            Arrays.fill(stamp, -1);
+            for (int c = 0; c < comps; c++) {
+                int vertices = 0, edges = compFirst[c+1] - compFirst[c];
+                boolean cycle = true;
+                for (int k = 2*compFirst[c]; k < 2*compFirst[c+1]; k++) {
+                    int e = compEdge[k >> 1];
+                    int x = (k & 1) == 0 ? src[e] : tgt[e];
+                    if (stamp[x] != c) {
+                        stamp[x] = c;
+                        deg[x] = 0;
+                        vertices++;
+                    }
+                    if (++deg[x] > 2) cycle = false;
+                }
+                if (vertices == 2)                      kind[c] = BOND;
+                else if (cycle && vertices == edges)    kind[c] = POLYGON;
+                else                                    kind[c] = RIGID;
+            }
+
+            // each virtual edge lies in exactly two components
+            int[] side1 = new int[m], side2 = new int[m];
+            Arrays.fill(side1, -1);
+            for (int c = 0; c < comps; c++)
+                for (int k = compFirst[c]; k < compFirst[c+1]; k++) {
+                    int e = compEdge[k];
+                    if (e < real) continue;
+                    if (side1[e] == -1) side1[e] = c;
+                    else                side2[e] = c;
+                }
+            UF uf = new UF(comps);
+            boolean[] merged = new boolean[m];
+            for (int e = real; e < m; e++) {
+                if (side1[e] == -1) continue;
+                int c1 = side1[e], c2 = side2[e];
+                if (kind[c1] == kind[c2] && kind[c1] != RIGID) {
+                    uf.union(c1, c2);
+                    merged[e] = true;
+                }
+            }
+
+            // poles of tree edges not incident to a bond, and of bonds with two or more tree edges
+            int[] virtualEdges = new int[comps];
+            for (int e = real; e < m; e++) {
+                if (side1[e] == -1 || merged[e]) continue;
+                int c1 = uf.find(side1[e]), c2 = uf.find(side2[e]);
+                virtualEdges[c1]++;
+                virtualEdges[c2]++;
+                if (kind[c1] != BOND && kind[c2] != BOND)
+                    T.pair(vertex[src[e]], vertex[tgt[e]]);
+            }
+            for (int c = 0; c < comps; c++) {
+                if (kind[c] != BOND || uf.find(c) != c || virtualEdges[c] < 2) continue;
+                int e = compEdge[compFirst[c]];
+                T.pair(vertex[src[e]], vertex[tgt[e]]);
+            }
+
+            // nonadjacent vertices of each polygon: gather its edges, then walk the cycle
+            int[] count = new int[comps+1];
+            for (int c = 0; c < comps; c++) {
+                if (kind[c] != POLYGON) continue;
+                for (int k = compFirst[c]; k < compFirst[c+1]; k++)
+                    if (!merged[compEdge[k]]) count[uf.find(c)+1]++;
+            }
+            for (int c = 0; c < comps; c++)
+                count[c+1] += count[c];
+            int[] cycleEdge = new int[count[comps]];
+            int[] next = Arrays.copyOf(count, comps);
+            for (int c = 0; c < comps; c++) {
+                if (kind[c] != POLYGON) continue;
+                for (int k = compFirst[c]; k < compFirst[c+1]; k++)
+                    if (!merged[compEdge[k]]) cycleEdge[next[uf.find(c)]++] = compEdge[k];
+            }
+            int[] inc1 = new int[n], inc2 = new int[n];
+            Arrays.fill(inc1, NIL);
+            Arrays.fill(inc2, NIL);
+            int[] cycle = new int[n];
+            for (int c = 0; c < comps; c++) {
+                int k = count[c+1] - count[c];
+                if (k < 4) continue;
+                for (int j = count[c]; j < count[c+1]; j++) {
+                    int e = cycleEdge[j];
+                    if (inc1[src[e]] == NIL) inc1[src[e]] = e; else inc2[src[e]] = e;
+                    if (inc1[tgt[e]] == NIL) inc1[tgt[e]] = e; else inc2[tgt[e]] = e;
+                }
+                int x = src[cycleEdge[count[c]]], prev = NIL;
+                for (int j = 0; j < k; j++) {
+                    cycle[j] = x;
+                    int e = inc1[x] != prev ? inc1[x] : inc2[x];
+                    prev = e;
+                    x = src[e] == x ? tgt[e] : src[e];
+                }
+                for (int j = count[c]; j < count[c+1]; j++) {
+                    int e = cycleEdge[j];
+                    inc1[src[e]] = inc2[src[e]] = NIL;
+                    inc1[tgt[e]] = inc2[tgt[e]] = NIL;
+                }
+                T.polygon(vertex, cycle, k);
+            }
+        }
+
+        // the new number of the target of the first arc of A[w], or 0 if there is none
+        private int firstChild(int w) {
+            return aHead[w] == NIL ? 0 : newnum[tgt[aEdge[aHead[w]]]];
+        }
+
+        // the highest number of a vertex with a frond into v, or 0 if there is none
+        private int high(int v) {
+            return hHead[v] == NIL ? 0 : hVal[hHead[v]];
+        }
+
+        private int listSize(int v) {
+            int size = 0;
+            for (int node = aHead[v]; node != NIL; node = aNext[node])
+                size++;
+            return size;
+        }
+
+        private void listDelete(int v, int node) {
+            if (aPrev[node] == NIL) aHead[v] = aNext[node];
+            else                    aNext[aPrev[node]] = aNext[node];
+            if (aNext[node] != NIL) aPrev[aNext[node]] = aPrev[node];
+        }
+
+        private int highPushBack(int v, int value) {
+            int node = newHighNode(value);
+            hPrev[node] = hTail[v];
+            hNext[node] = NIL;
+            if (hTail[v] == NIL) hHead[v] = node;
+            else                 hNext[hTail[v]] = node;
+            hTail[v] = node;
+            return node;
+        }
+
+        private int highPushFront(int v, int value) {
+            int node = newHighNode(value);
+            hPrev[node] = NIL;
+            hNext[node] = hHead[v];
+            if (hHead[v] == NIL) hTail[v] = node;
+            else                 hPrev[hHead[v]] = node;
+            hHead[v] = node;
+            return node;
+        }
+
+        private int newHighNode(int value) {
+            if (hNodes == hVal.length) {
+                hVal  = Arrays.copyOf(hVal, 2*hNodes);
+                hNext = Arrays.copyOf(hNext, 2*hNodes);
+                hPrev = Arrays.copyOf(hPrev, 2*hNodes);
+            }
+            hVal[hNodes] = value;
+            return hNodes++;
+        }
+
+        // remove e from HIGHPT[tgt[e]] if it is there
+        private void delHigh(int e) {
+            int node = inHigh[e];
+            if (node == NIL) return;
+            int v = tgt[e];
+            if (hPrev[node] == NIL) hHead[v] = hNext[node];
+            else                    hNext[hPrev[node]] = hNext[node];
+            if (hNext[node] == NIL) hTail[v] = hPrev[node];
+            else                    hPrev[hNext[node]] = hPrev[node];
+            inHigh[e] = NIL;
+        }
+
+        private int newEdge(int v, int w) {
+            if (m == src.length) {
+                int capacity = 2*m;
+                src    = Arrays.copyOf(src, capacity);
+                tgt    = Arrays.copyOf(tgt, capacity);
+                type   = Arrays.copyOf(type, capacity);
+                start  = Arrays.copyOf(start, capacity);
+                inAdj  = Arrays.copyOf(inAdj, capacity);
+                inHigh = Arrays.copyOf(inHigh, capacity);
+                aNext  = Arrays.copyOf(aNext, capacity);
+                aPrev  = Arrays.copyOf(aPrev, capacity);
+                aEdge  = Arrays.copyOf(aEdge, capacity);
+                Arrays.fill(inAdj, m, capacity, NIL);
+                Arrays.fill(inHigh, m, capacity, NIL);
+            }
+            src[m] = v;
+            tgt[m] = w;
+            return m++;
+        }
+
+        private void tpush(int h, int a, int b) {
+            if (++ttop == ta.length) {
+                th = Arrays.copyOf(th, 2*ttop);
+                ta = Arrays.copyOf(ta, 2*ttop);
+                tb = Arrays.copyOf(tb, 2*ttop);
+            }
+            th[ttop] = h;
+            ta[ttop] = a;
+            tb[ttop] = b;
+        }
+
+        private void epush(int e) {
+            if (etop == estack.length) estack = Arrays.copyOf(estack, 2*etop);
+            estack[etop++] = e;
+        }
+
+        private void newComp() {
+            if (comps + 1 >= compFirst.length) compFirst = Arrays.copyOf(compFirst, 2*compFirst.length);
+            compFirst[comps++] = compSize;
+        }
+
+        private void add(int e) {
+            if (compSize == compEdge.length) compEdge = Arrays.copyOf(compEdge, 2*compSize);
+            compEdge[compSize++] = e;
+        }
+    }
+
+
+    /**
+     * Unit tests the {@code Triconnectivity} data type by printing, like
+     * option 5, every pair of vertices whose joint failure disconnects the
+     * topology.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        Triconnectivity tri = new Triconnectivity(G);
+        for (int i = 0; i < G.V(); i++)
+            for (int j : tri.partners(i))
+                StdOut.println("vertices " + i + " " + j);
+    }
+}
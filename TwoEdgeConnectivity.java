@@ -0,0 +1,333 @@
+/******************************************************************************
+ *  Compilation:  javac TwoEdgeConnectivity.java
+ *  Execution:    java TwoEdgeConnectivity topology.txt
+ *  Dependencies: IndexedDigraph.java EdgeWeightedDigraph.java Biconnected.java
+ *                Edge.java Queue.java In.java StdOut.java
+ *
+ *  Finds the links whose failure disconnects the topology: the bridges,
+ *  the 2-edge-connected components they separate, and the pairs of links
+ *  that are only a cut together. One depth-first search, no reruns.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ *  The {@code TwoEdgeConnectivity} class analyzes link failures in an
+ *  undirected topology stored as an {@link IndexedDigraph}, whose links have
+ *  an edge in each direction. It finds the bridges, labels the
+ *  2-edge-connected components (the parts of the topology that stay
+ *  connected after any one link fails) and groups the remaining links into
+ *  cut classes: two links disconnect the topology together if and only if
+ *  they are in the same class.
+ *  <p>
+ *  Everything comes from the one depth-first search of a {@link Biconnected}
+ *  object, so hidden edges and removed vertices of a view are skipped and
+ *  the bridges are the blocks of one link that it finds: the two classes
+ *  cannot disagree on what a bridge is. The 2-edge-connected components are
+ *  what stays connected once the bridges are taken out. For the cut classes
+ *  every non-tree link of the search gets a random 64-bit label, and every
+ *  tree link gets the exclusive-or of the labels of the non-tree links whose
+ *  cycles cover it, summed up the tree in reverse preorder. A link is a
+ *  bridge exactly when no cycle covers it. Two other links are a cut
+ *  together exactly when they lie on the same cycles, and then their labels
+ *  are equal. Links on different cycles get equal labels with probability
+ *  about 2<sup>-64</sup> per pair. The random generator has a fixed seed, so
+ *  the answers are the same from run to run.
+ *  <p>
+ *  This implementation takes time proportional to <em>V</em> + <em>E</em>
+ *  for the search and <em>E</em> log <em>E</em> to sort the labels into
+ *  classes. Checking every pair of links by removing both and searching
+ *  again takes time proportional to <em>E</em><sup>2</sup> (<em>V</em> + <em>E</em>).
+ *
+ *  @author Daniel O'Neill
+ */
+public class TwoEdgeConnectivity {
+    private static final long SEED = 1501L;
+
+    private final IndexedDigraph G;
+    private final Biconnected bic;     // the search, and the bridges
+    private final int[] component;     // 2-edge-connected component of vertex v, or -1
+    private final int components;
+    private final int[] cutClass;      // cut class of edge e, or -1
+    private final int classes;
+    private final int[] classStart;    // links of class c are classLinks[classStart[c] .. classStart[c+1]-1]
+    private final int[] classLinks;
+
+    /**
+     * Computes the bridges, 2-edge-connected components and cut classes of {@code G}.
+     *
+     * @param  G the edge-weighted digraph
+     */
+    public TwoEdgeConnectivity(EdgeWeightedDigraph G) {
+        this(G.freeze());
+    }
+
+    /**
+     * Computes the bridges, 2-edge-connected components and cut classes of {@code G}.
+     *
+     * @param  G the digraph
+     */
+    public TwoEdgeConnectivity(IndexedDigraph G) {
+        this.G = G;
+        this.bic = new Biconnected(G);
+        int V = G.V(), E = G.E();
+
+        // the 2-edge-connected components: what the links other than bridges connect
+        component = new int[V];
+        Arrays.fill(component, -1);
+        int[] stack = new int[V];
+        int count = 0;
+        for (int s = 0; s < V; s++) {
+            if (component[s] != -1 || !bic.isVisited(s)) continue;
+            int sp = 0;
+            component[s] = count;
+            stack[sp++] = s;
+            while (sp > 0) {
+                int v = stack[--sp];
+                for (int e = G.begin(v); e < G.end(v); e++) {
+                    int w = G.to(e);
+                    if (!G.hasEdge(e) || component[w] != -1 || bic.isBridge(e)) continue;
+                    component[w] = count;
+                    stack[sp++] = w;
+                }
+            }
+            count++;
+        }
+        components = count;
+
+        // a random label on each non-tree link, added into the cover of both its ends
+        long[] cover = new long[V];     // labels of the non-tree links with exactly one end in v's subtree
+        long[] label = new long[E];
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int e = 0; e < E; e++) {
+            if (bic.component(e) == -1 || e > other(e) || isTree(e)) continue;
+            long r;
+            do r = random.nextLong(); while (r == 0L);
+            setLabel(e, r, label);
+            cover[G.from(e)] ^= r;
+            cover[G.to(e)] ^= r;
+        }
+
+        // children before parents: each tree link takes the cover of the subtree below it
+        int[] order = new int[V];
+        int visited = 0;
+        for (int v = 0; v < V; v++) {
+            if (bic.pre(v) == -1) continue;
+            order[bic.pre(v)] = v;
+            visited++;
+        }
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order[i], f = bic.parent(v);
+            if (f == -1) continue;
+            if (!bic.isBridge(f)) setLabel(f, cover[v], label);
+            cover[G.from(f)] ^= cover[v];
+        }
+
+        // group the links on a cycle by label; a class needs at least two links
+        cutClass = new int[E];
+        Arrays.fill(cutClass, -1);
+        long[] sorted = new long[E];
+        int n = 0;
+        for (int e = 0; e < E; e++)
+            if (label[e] != 0L && e < other(e)) sorted[n++] = label[e];
+        Arrays.sort(sorted, 0, n);
+        int[] classOf = new int[n];     // class of the links labeled sorted[i], or -1
+        int distinct = 0, c = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && sorted[j] == sorted[i]) j++;
+            sorted[distinct] = sorted[i];
+            classOf[distinct++] = j - i > 1 ? c++ : -1;
+            i = j;
+        }
+        classes = c;
+        for (int e = 0; e < E; e++)
+            if (label[e] != 0L) cutClass[e] = classOf[Arrays.binarySearch(sorted, 0, distinct, label[e])];
+        classStart = new int[classes+1];
+        for (int e = 0; e < E; e++)
+            if (cutClass[e] != -1 && e <= other(e)) classStart[cutClass[e]+1]++;
+        for (int k = 0; k < classes; k++)
+            classStart[k+1] += classStart[k];
+        classLinks = new int[classStart[classes]];
+        int[] next = Arrays.copyOf(classStart, classes);
+        for (int e = 0; e < E; e++)
+            if (cutClass[e] != -1 && e <= other(e)) classLinks[next[cutClass[e]]++] = e;
+    }
+
+    // is edge e over the link by which the search reached one of its ends?
+    private boolean isTree(int e) {
+        int v = G.from(e), w = G.to(e);
+        return bic.parent(w) != -1 && G.link(bic.parent(w)) == G.link(e)
+            || bic.parent(v) != -1 && G.link(bic.parent(v)) == G.link(e);
+    }
+
+    // label edge e and the other direction of its link
+    private void setLabel(int e, long r, long[] label) {
+        label[e] = r;
+        if (G.twin(e) != -1) label[G.twin(e)] = r;
+    }
+
+    // the other direction of edge e, or e itself
+    private int other(int e) {
+        return G.twin(e) == -1 ? e : G.twin(e);
+    }
+
+    /**
+     * Returns true if the link under edge {@code e} is a bridge, that is, if
+     * its failure alone disconnects its endpoints.
+     *
+     * @param  e the edge number
+     * @return {@code true} if edge {@code e} is a bridge; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public boolean isBridge(int e) {
+        validateEdge(e);
+        return bic.isBridge(e);
+    }
+
+    /**
+     * Returns the bridges, one edge per link.
+     *
+     * @return the bridges
+     */
+    public Iterable<Edge> bridges() {
+        return bic.bridges();
+    }
+
+    /**
+     * Returns the number of 2-edge-connected components.
+     *
+     * @return the number of 2-edge-connected components
+     */
+    public int components() {
+        return components;
+    }
+
+    /**
+     * Returns the 2-edge-connected component containing vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the component of vertex {@code v}, between 0 and {@code components() - 1},
+     *         or -1 if {@code v} has been removed from the view
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int component(int v) {
+        validateVertex(v);
+        return component[v];
+    }
+
+    /**
+     * Returns true if vertices {@code u} and {@code w} stay connected after
+     * the failure of any one link.
+     *
+     * @param  u one vertex
+     * @param  w the other vertex
+     * @return {@code true} if {@code u} and {@code w} are 2-edge-connected; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= u < V} and {@code 0 <= w < V}
+     */
+    public boolean twoEdgeConnected(int u, int w) {
+        return component(u) != -1 && component(u) == component(w);
+    }
+
+    /**
+     * Returns the number of cut classes.
+     *
+     * @return the number of cut classes
+     */
+    public int cutClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the cut class of the link under edge {@code e}. Any two links
+     * in a class disconnect the topology when they fail together, though
+     * neither does alone.
+     *
+     * @param  e the edge number
+     * @return the cut class of edge {@code e}, between 0 and {@code cutClasses() - 1},
+     *         or -1 if no other link forms a cut with it
+     * @throws IllegalArgumentException unless {@code 0 <= e < E}
+     */
+    public int cutClass(int e) {
+        validateEdge(e);
+        return cutClass[e];
+    }
+
+    /**
+     * Returns true if the failure of the links under edges {@code e} and
+     * {@code f} disconnects two vertices that were connected, including when
+     * one of them is a bridge.
+     *
+     * @param  e one edge number
+     * @param  f the other edge number
+     * @return {@code true} if the two links together form a cut; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= e < E} and {@code 0 <= f < E}
+     */
+    public boolean isCutPair(int e, int f) {
+        validateEdge(e);
+        validateEdge(f);
+        if (bic.isBridge(e) || bic.isBridge(f)) return true;
+        return cutClass[e] != -1 && cutClass[e] == cutClass[f] && G.link(e) != G.link(f);
+    }
+
+    /**
+     * Returns the links in cut class {@code c}, one edge per link.
+     *
+     * @param  c the cut class
+     * @return the links of class {@code c}
+     * @throws IllegalArgumentException unless {@code 0 <= c < cutClasses()}
+     */
+    public Iterable<Edge> links(int c) {
+        if (c < 0 || c >= classes)
+            throw new IllegalArgumentException("cut class " + c + " is not between 0 and " + (classes-1));
+        Queue<Edge> links = new Queue<Edge>();
+        for (int k = classStart[c]; k < classStart[c+1]; k++)
+            links.enqueue(G.edge(classLinks[k]));
+        return links;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= G.V())
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (G.V()-1));
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= e < E}
+    private void validateEdge(int e) {
+        if (e < 0 || e >= G.E())
+            throw new IllegalArgumentException("edge " + e + " is not between 0 and " + (G.E()-1));
+    }
+
+    /**
+     * Unit tests the {@code TwoEdgeConnectivity} data type by printing the
+     * bridges, the 2-edge-connected components and the cut classes of a topology.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        TwoEdgeConnectivity tec = new TwoEdgeConnectivity(G);
+
+        StdOut.println("Bridges");
+        StdOut.println("-------");
+        for (Edge e : tec.bridges())
+            StdOut.println(e.from() + "-" + e.to());
+
+        StdOut.println();
+        StdOut.println(tec.components() + " 2-edge-connected components");
+        for (int v = 0; v < G.V(); v++)
+            StdOut.println(v + ": " + tec.component(v));
+
+        StdOut.println();
+        StdOut.println("Pairs of links that disconnect the topology together");
+        StdOut.println("----------------------------------------------------");
+        for (int c = 0; c < tec.cutClasses(); c++) {
+            StdOut.print("class " + c + ":");
+            for (Edge e : tec.links(c))
+                StdOut.print(" " + e.from() + "-" + e.to());
+            StdOut.println();
+        }
+    }
+}